@@ -1,5 +1,6 @@
 import java.io.FileNotFoundException;
 
+import controller.Controller;
 import controller.GUIController;
 import controller.TextController;
 import exceptions.*;
@@ -9,6 +10,9 @@ import exceptions.*;
  */
 public class Launcher {
 
+    /** The prefix of the argument giving the seed of a generated maze. */
+    private static final String SEED_PREFIX = "--seed=";
+
     /**
      * Prints an error message to {@code System.err} and exits the program.
      * @param msg The error message to print
@@ -22,11 +26,16 @@ public class Launcher {
      * Runs the maze game based on the given command-line arguments.
      * @param args The command-line arguments given when the program is run. If one of the
      *             arguments is {@code GUI} then the maze will open in a GUI. If another argument
-     *             is given, that will be interpreted as the filename. A maximum of two arguments
-     *             should be given.
+     *             is given, that will be interpreted as the filename ({@code -} reads the maze
+     *             from standard input). Without a filename a random maze is generated, and
+     *             {@code --seed=<number>} generates the same maze every time for that seed. A
+     *             maximum of two arguments should be given.
      */
     public static void main(String[] args) {
 
+        // Starts generating random mazes straight away, so a random game's maze is ready sooner
+        Controller.prepareRandomMazes();
+
         // Too many arguments
         if (args.length > 2) {
             printError("Too many command-line arguments given.");
@@ -34,26 +43,37 @@ public class Launcher {
 
         // Processes the arguments
         String filename = null;
+        Long seed = null;
         boolean gui = false;
         for (String arg : args) {
             if (arg.equalsIgnoreCase("GUI") && !gui) {
                 gui = true;
+            } else if (arg.startsWith(SEED_PREFIX) && seed == null) {
+                try {
+                    seed = Long.parseLong(arg.substring(SEED_PREFIX.length()));
+                } catch (NumberFormatException e) {
+                    printError("The seed must be a whole number");
+                }
             } else {
                 if (filename == null) {
                     filename = arg;
                 } else {
                     // Filename already given
-                    printError("Arguments should only be \"GUI\" or the filename, nothing else");
+                    printError("Arguments should only be \"GUI\", %s<number> or the filename, "
+                            .formatted(SEED_PREFIX) + "nothing else");
                 }
             }
         }
+        if (filename != null && seed != null) {
+            printError("A seed can only be given for generated mazes, not with a filename");
+        }
 
         // Runs the game
         try {
             if (gui) {
-                new GUIController(filename).run();
+                new GUIController(filename, seed).run();
             } else {
-                new TextController(filename).run();
+                new TextController(filename, seed).run();
             }
         } catch (MazeMalformedException | MazeSizeMissmatchException | IllegalArgumentException
                  | FileNotFoundException e) {
@@ -0,0 +1,109 @@
+package controller;
+
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+
+import exceptions.MazeUnsolveableException;
+import maze.Maze;
+import maze.MazeSearch;
+import maze.MazeSolver;
+import maze.SolvedPath;
+
+/**
+ * Searches for a route to the end of a maze on a background thread, a limited number of cells
+ * at a time, publishing its progress at a fixed rate.
+ * <p>
+ * Cancelling (see {@link #requestCancel()}) only asks the search to stop at its next check,
+ * rather than cancelling the worker, so the done callback always runs on the event dispatch
+ * thread after the search has actually returned. Until then the maze is only read, so it must
+ * not be changed.
+ */
+class AutoSolver extends SwingWorker<SolvedPath, long[]> {
+
+    /** The number of cells explored between checks for cancellation. */
+    static final int STEP_BUDGET = 4096;
+    /** How often the progress is published. */
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000;
+
+    private final Maze maze;
+    private final MazeSolver solver;
+    /** Called on the event dispatch thread with the latest {expanded, frontier size}. */
+    private final Consumer<long[]> onProgress;
+    /** Called on the event dispatch thread once the search has returned. */
+    private final Consumer<AutoSolver> onDone;
+    /** Whether the search has been asked to stop. */
+    private volatile boolean cancelRequested;
+
+    /**
+     * Creates a new autosolver.
+     * @param maze The maze to search, which isn't changed.
+     * @param solver The solver used to search for a route.
+     * @param onProgress Called on the event dispatch thread with the number of cells expanded
+     *                   and the size of the frontier, as the search goes on.
+     * @param onDone Called on the event dispatch thread once the search has finished or
+     *               stopped after being cancelled.
+     */
+    AutoSolver(Maze maze, MazeSolver solver, Consumer<long[]> onProgress,
+               Consumer<AutoSolver> onDone) {
+        this.maze = maze;
+        this.solver = solver;
+        this.onProgress = onProgress;
+        this.onDone = onDone;
+    }
+
+    /**
+     * Asks the search to stop. It stops the next time it checks, after at most
+     * {@value #STEP_BUDGET} more cells, and the done callback is then called as usual.
+     */
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * Checks if the search has been asked to stop.
+     * @return Whether {@link #requestCancel()} has been called.
+     */
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Runs the search on the calling thread.
+     * @return The route to the end, or {@code null} if the search was cancelled.
+     * @throws MazeUnsolveableException If the end can't be reached.
+     */
+    SolvedPath search() throws MazeUnsolveableException {
+        MazeSearch search = solver.start(maze);
+        long nextProgress = System.nanoTime();
+        while (!search.advance(STEP_BUDGET, null)) {
+            if (cancelRequested) {
+                search.cancel();
+                return null;
+            }
+            long now = System.nanoTime();
+            if (now - nextProgress >= 0) {
+                publish(new long[]{search.getExpanded(), search.getFrontierSize()});
+                nextProgress = now + PROGRESS_INTERVAL_NANOS;
+            }
+        }
+        return search.getResult();
+    }
+
+    @Override
+    protected SolvedPath doInBackground() throws MazeUnsolveableException {
+        return search();
+    }
+
+    @Override
+    protected void process(List<long[]> progress) {
+        // Only the latest progress is shown
+        onProgress.accept(progress.get(progress.size() - 1));
+    }
+
+    @Override
+    protected void done() {
+        onDone.accept(this);
+    }
+
+}
@@ -3,8 +3,11 @@ package controller;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.io.FileNotFoundException;
+import java.nio.file.Path;
 
 import exceptions.*;
+import io.File;
+import io.CachedFileLoader;
 import io.FileLoader;
 import maze.*;
 import view.View;
@@ -26,8 +29,22 @@ public abstract class Controller<V extends View, I> {
 
     /** The size of a randomly generated maze. */
     private static int DEFAULT_SIZE = 101;
+    /** The maximum number of maze solutions cached in memory. */
+    private static final int SOLUTION_CACHE_SIZE = 64;
+    /** Solutions found by the autosolver, shared by every controller. */
+    private static final SolutionCache SOLUTIONS = new SolutionCache(SOLUTION_CACHE_SIZE);
+    /** The number of random mazes of each size kept ready to play. */
+    private static final int MAZE_POOL_SIZE = 2;
+    /** Random mazes ready to be played, shared by every controller. */
+    private static final MazePool MAZES = new MazePool(MAZE_POOL_SIZE,
+            MazePool.defaultSpareDir());
+    /** The filename that means the maze is read from standard input (e.g. a pipe). */
+    public static final String STDIN_FILENAME = "-";
 
     protected final Maze maze;
+    /** The file the maze's solution is saved to, or {@code null} for generated mazes and
+     * mazes read from standard input. */
+    private final Path solutionFile;
     protected V view;
     /** Whether the maze has been completed (when the maze has been solved by the
      * user/autosolver, or the autosolver failed to solve the maze). */
@@ -35,18 +52,49 @@ public abstract class Controller<V extends View, I> {
 
     /**
      * Creates a new controller.
-     * @param filename The name of the file containing the maze data.
+     * @param filename The name of the file containing the maze data, {@link #STDIN_FILENAME}
+     *                 to read it from standard input, or {@code null} to generate a maze.
      */
     public Controller(String filename)
             throws FileNotFoundException, MazeSizeMissmatchException, MazeMalformedException {
-        if (filename != null) {
-            this.maze = new Maze(new FileLoader().load(filename));
+        this(filename, null);
+    }
+
+    /**
+     * Creates a new controller.
+     * @param filename The name of the file containing the maze data, {@link #STDIN_FILENAME}
+     *                 to read it from standard input, or {@code null} to generate a maze.
+     * @param seed The seed to generate the maze from (so the same maze can be generated
+     *             again), or {@code null} to generate a different maze each time. Only used
+     *             when no filename is given.
+     */
+    public Controller(String filename, Long seed)
+            throws FileNotFoundException, MazeSizeMissmatchException, MazeMalformedException {
+        if (STDIN_FILENAME.equals(filename)) {
+            this.maze = new FileLoader().loadMaze(System.in, "standard input");
+            this.solutionFile = null;
+        } else if (filename != null) {
+            this.maze = new CachedFileLoader().loadMaze(filename);
+            this.solutionFile = File.resolve(filename + SolutionCache.EXTENSION);
+        } else if (seed != null) {
+            this.maze = Maze.generate(DEFAULT_SIZE, seed);
+            this.solutionFile = null;
         } else {
-            this.maze = Maze.generate(DEFAULT_SIZE);
+            this.maze = MAZES.take(DEFAULT_SIZE);
+            this.solutionFile = null;
         }
         this.mazeCompleted = false;
     }
 
+    /**
+     * Starts generating random mazes in the background, so the first random game of the run
+     * doesn't have to generate its maze once the game has started. This is called as soon as
+     * the program starts.
+     */
+    public static void prepareRandomMazes() {
+        MAZES.prepare(DEFAULT_SIZE);
+    }
+
     /**
      * Runs the controller.
      */
@@ -80,7 +128,7 @@ public abstract class Controller<V extends View, I> {
 
         // Updates the view if the move was successful
         if (success) {
-            view.update();
+            view.updateChanged();
             if (maze.endFound()) {
                 view.congratulate();
                 end();
@@ -97,17 +145,80 @@ public abstract class Controller<V extends View, I> {
      */
     public abstract Direction getDirection(I input);
 
+    /**
+     * Tells the user which way to move next to reach the end by the shortest route.
+     */
+    protected void hint() {
+        try {
+            view.showHint(maze.getHint(), maze.getDistanceToEnd());
+        } catch (IllegalStateException e) {
+            // The maze is too large to store a distance for every cell
+            view.showHint(null, -1);
+        }
+    }
+
     /**
      * Attempts to autosolve the maze and alerts the user
      * if the end was found.
      */
     protected void autoSolve() {
+        autoSolve(null);
+    }
+
+    /**
+     * Attempts to autosolve the maze with the solver of the given name and alerts the user
+     * if the end was found.
+     * Named solvers check the solution cache first, and replay a cached solution without
+     * searching if there is one.
+     * @param solverName The name of the solver to use (see {@link MazeSolver#named(String)}),
+     *                   or {@code null} to walk the maze depth-first.
+     */
+    protected void autoSolve(String solverName) {
+        MazeSolver solver = null;
+        if (solverName != null) {
+            solver = createSolver(solverName);
+            if (solver == null) {
+                return;
+            }
+        }
         try {
-            maze.autoSolve();
-            view.update();
-            view.autoSolverSucceeded();
+            if (solver == null) {
+                maze.autoSolve();
+            } else {
+                maze.autoSolve(solver);
+            }
+            autoSolved(true);
         } catch (MazeUnsolveableException e) {
-            view.update();
+            autoSolved(false);
+        }
+    }
+
+    /**
+     * Creates the solver with the given name, which checks the solution cache first and
+     * replays a cached solution without searching if there is one.
+     * @param solverName The name of the solver (see {@link MazeSolver#named(String)}).
+     * @return The solver, or {@code null} if there is no solver with that name (in which case
+     *         the user is warned).
+     */
+    protected MazeSolver createSolver(String solverName) {
+        try {
+            return new CachingSolver(MazeSolver.named(solverName), SOLUTIONS, solutionFile);
+        } catch (IllegalArgumentException e) {
+            view.warnUnknownSolver(solverName);
+            return null;
+        }
+    }
+
+    /**
+     * Redraws the whole maze after the autosolver has finished, alerts the user if the end was
+     * found, and ends the game.
+     * @param solved Whether the autosolver found the end.
+     */
+    protected void autoSolved(boolean solved) {
+        view.update();
+        if (solved) {
+            view.autoSolverSucceeded();
+        } else {
             view.warnUnsolveable();
         }
         end();
@@ -5,26 +5,49 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.io.FileNotFoundException;
+import java.util.concurrent.ExecutionException;
 import static java.awt.event.KeyEvent.*;
 
 import exceptions.*;
 import maze.Direction;
+import maze.MazeSolver;
+import maze.SolvedPath;
 import view.GUIView;
 import static maze.Direction.*;
 
 /**
  * A controller for GUI handling.
+ * <p>
+ * The autosolver runs on a background thread (see {@link AutoSolver}), so the window stays
+ * responsive while it searches large mazes, and can be cancelled.
  */
 public class GUIController extends Controller<GUIView, KeyEvent>
         implements KeyListener, ActionListener {
 
+    /** The name of the solver used by the autosolve button (see {@link MazeSolver#named}). */
+    private static final String AUTOSOLVER = "astar";
+    /** The autosolver running in the background, or {@code null} if it isn't running. It is
+     * only cleared once its search has returned, even if it was cancelled. */
+    private AutoSolver autoSolver;
+
     /**
      * Creates a new GUI controller.
      * @param filename The name of the file containing the maze data.
      */
     public GUIController(String filename)
             throws FileNotFoundException, MazeSizeMissmatchException, MazeMalformedException {
-        super(filename);
+        this(filename, null);
+    }
+
+    /**
+     * Creates a new GUI controller.
+     * @param filename The name of the file containing the maze data, or {@code null} to
+     *                 generate a maze.
+     * @param seed The seed to generate the maze from, or {@code null} for a random maze.
+     */
+    public GUIController(String filename, Long seed)
+            throws FileNotFoundException, MazeSizeMissmatchException, MazeMalformedException {
+        super(filename, seed);
         this.view = new GUIView(this.maze, filename);
     }
 
@@ -48,8 +71,13 @@ public class GUIController extends Controller<GUIView, KeyEvent>
 
     @Override
     public void keyPressed(KeyEvent event) {
-        if (!mazeCompleted) {
-            userMoved(event);
+        // The maze can't be played while the autosolver is running
+        if (!mazeCompleted && autoSolver == null) {
+            if (event.getKeyCode() == VK_H) {
+                hint();
+            } else {
+                userMoved(event);
+            }
         }
     }
 
@@ -63,7 +91,61 @@ public class GUIController extends Controller<GUIView, KeyEvent>
 
     @Override
     public void actionPerformed(ActionEvent e) {
-        autoSolve();
+        switch (e.getActionCommand()) {
+            case GUIView.SOLVE_COMMAND -> solveInBackground();
+            case GUIView.CANCEL_COMMAND -> {
+                if (autoSolver != null) {
+                    autoSolver.requestCancel();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Starts the autosolver in the background, unless it is already running or the maze has
+     * been completed.
+     */
+    private void solveInBackground() {
+        if (autoSolver != null || mazeCompleted) {
+            return;
+        }
+        MazeSolver solver = createSolver(AUTOSOLVER);
+        if (solver != null) {
+            autoSolver = new AutoSolver(maze, solver,
+                    progress -> view.showProgress(progress[0], (int) progress[1]),
+                    this::autoSolverDone);
+            view.showSolving();
+            autoSolver.execute();
+        }
+    }
+
+    /**
+     * Shows the result of the autosolver once it has returned, then lets the maze be played or
+     * solved again. The route is followed and the whole maze is redrawn at once.
+     * @param finished The autosolver, which has returned.
+     */
+    private void autoSolverDone(AutoSolver finished) {
+        autoSolver = null;
+        try {
+            // Only a cancelled search returns without a route
+            SolvedPath route = finished.get();
+            view.hideSolving(route == null);
+            if (route != null) {
+                maze.follow(route);
+                autoSolved(true);
+            }
+        } catch (ExecutionException e) {
+            view.hideSolving(false);
+            if (!(e.getCause() instanceof MazeUnsolveableException)) {
+                throw new IllegalStateException("The autosolver failed", e.getCause());
+            }
+            autoSolved(false);
+        } catch (InterruptedException e) {
+            // Can't happen, since the search has returned
+            Thread.currentThread().interrupt();
+        }
     }
 
 }
@@ -0,0 +1,368 @@
+package controller;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import io.BinaryFileLoader;
+import maze.Maze;
+
+/**
+ * Keeps a few randomly generated mazes of each size ready, so a new random game can start
+ * without waiting for a maze to be generated.
+ * <p>
+ * After a maze is taken, the pool is refilled on a background daemon thread. If a spare
+ * directory is given, each maze generated for the pool is also saved there in the binary
+ * format (see {@link BinaryFileLoader}), and spare mazes left over from earlier runs are
+ * loaded from it before any maze is generated, so even the first game of a run starts
+ * instantly. Each saved maze is deleted once it is taken, so no maze is played twice.
+ * Temporary files left behind by runs that exited part way through saving a spare are deleted
+ * when the spare directory is next scanned.
+ */
+public class MazePool {
+
+    /** The system property giving the spare directory ({@link #defaultSpareDir()}). */
+    public static final String SPARE_DIR_PROPERTY = "maze.spareDir";
+    /** The file extension of spares that are still being written. */
+    private static final String TEMP_EXTENSION = ".tmp";
+    /** How old a temporary file must be before it is taken to be left behind by a run that
+     * exited while saving it, rather than still being written. */
+    private static final long STALE_TEMP_MILLIS = 60_000;
+
+    private final int capacity;
+    /** The directory spare mazes are saved to, or {@code null} if they aren't saved. */
+    private final Path spareDir;
+    private final ExecutorService executor;
+    /** The mazes generated by this pool for each size that haven't been taken yet. */
+    private final Map<Integer, Deque<Spare>> ready = new HashMap<>();
+    /** The files of the mazes generated by this pool that haven't been taken, and of earlier
+     * runs' spares being taken, which the other spares are told apart from. */
+    private final Set<Path> ownFiles = new HashSet<>();
+    /** The sizes being refilled in the background. */
+    private final Set<Integer> filling = new HashSet<>();
+
+    /**
+     * A maze kept in the pool, along with the file it is saved in ({@code null} if it isn't
+     * saved).
+     */
+    private static class Spare {
+
+        private final Maze maze;
+        private final Path file;
+
+        private Spare(Maze maze, Path file) {
+            this.maze = maze;
+            this.file = file;
+        }
+
+    }
+
+    /**
+     * Creates a pool whose mazes are only kept in memory.
+     * @param capacity The number of mazes of each size to keep ready.
+     */
+    public MazePool(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a pool that saves its mazes to a directory between runs.
+     * @param capacity The number of mazes of each size to keep ready.
+     * @param spareDir The directory to save spare mazes to (created if needed), or
+     *                 {@code null} to only keep them in memory.
+     */
+    public MazePool(int capacity, Path spareDir) {
+        this.capacity = capacity;
+        this.spareDir = spareDir;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "maze-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the spare directory set by the {@value #SPARE_DIR_PROPERTY} system property. When
+     * it isn't set, spares are saved to {@code mazegame-spares} in the temporary directory,
+     * and setting it to an empty string disables saving spares.
+     * @return The spare directory, or {@code null} if spares shouldn't be saved.
+     */
+    public static Path defaultSpareDir() {
+        String dir = System.getProperty(SPARE_DIR_PROPERTY);
+        if (dir == null) {
+            return Path.of(System.getProperty("java.io.tmpdir"), "mazegame-spares");
+        }
+        return dir.isEmpty() ? null : Path.of(dir);
+    }
+
+    /**
+     * Starts filling the pool with mazes of a given size in the background, if it isn't full
+     * or being filled already.
+     * @param size The size of the mazes.
+     */
+    public synchronized void prepare(int size) {
+        if (filling.add(size)) {
+            executor.execute(() -> fill(size));
+        }
+    }
+
+    /**
+     * Takes a random maze of a given size, then refills the pool in the background. The maze
+     * comes from memory or a saved spare if there is one. Otherwise, if the pool is being
+     * filled, the maze being generated in the background is waited for, and the maze is only
+     * generated on the calling thread when the pool is empty and not being filled.
+     * @param size The size of the maze.
+     * @return A maze that hasn't been taken from this pool (or its spare directory) before.
+     * @throws IllegalArgumentException If mazes can't be generated with the given size.
+     */
+    public Maze take(int size) throws IllegalArgumentException {
+        Maze maze = takeReady(size);
+        if (maze == null) {
+            maze = takeSaved(size);
+        }
+        if (maze == null) {
+            maze = awaitReady(size);
+        }
+        if (maze == null) {
+            maze = Maze.generate(size);
+        }
+        prepare(size);
+        return maze;
+    }
+
+    /**
+     * Gets the number of mazes of a given size ready to be taken.
+     * @param size The size of the mazes.
+     * @return The number of mazes in memory or saved in the spare directory.
+     */
+    public int available(int size) {
+        int numReady;
+        synchronized (this) {
+            numReady = ready(size).size();
+        }
+        return numReady + savedFiles(size).size();
+    }
+
+    /**
+     * Takes a maze generated by this pool.
+     * @param size The size of the maze.
+     * @return The maze, or {@code null} if there are none of that size.
+     */
+    private synchronized Maze takeReady(int size) {
+        Spare spare = ready(size).pollFirst();
+        if (spare == null) {
+            return null;
+        }
+        if (spare.file != null) {
+            ownFiles.remove(spare.file);
+            delete(spare.file);
+        }
+        return spare.maze;
+    }
+
+    /**
+     * Waits for the maze being generated in the background, if the pool is being filled, and
+     * takes it.
+     * @param size The size of the maze.
+     * @return The maze, or {@code null} if the pool isn't being filled or the filling stopped
+     *         without adding a maze.
+     */
+    private synchronized Maze awaitReady(int size) {
+        boolean interrupted = false;
+        while (ready(size).isEmpty() && filling.contains(size)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return takeReady(size);
+    }
+
+    /**
+     * Takes a maze saved in the spare directory by an earlier run. Each file is claimed before
+     * it is loaded, so the pool isn't locked while loading and no two threads take the same
+     * spare.
+     * @param size The size of the maze.
+     * @return The maze, or {@code null} if there are no valid saved mazes of that size.
+     */
+    private Maze takeSaved(int size) {
+        for (Path file : savedFiles(size)) {
+            synchronized (this) {
+                if (!ownFiles.add(file)) {
+                    // Another thread is taking this spare
+                    continue;
+                }
+            }
+            Maze maze = null;
+            try {
+                maze = new BinaryFileLoader().loadMaze(file);
+            } catch (MazeMalformedException | MazeSizeMissmatchException
+                     | IllegalArgumentException | FileNotFoundException e) {
+                // A damaged spare is deleted and skipped
+            }
+            delete(file);
+            synchronized (this) {
+                ownFiles.remove(file);
+            }
+            if (maze != null && maze.getNumRows() == size && maze.getNumCols() == size) {
+                return maze;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generates mazes of a given size until the pool is full.
+     * @param size The size of the mazes.
+     */
+    private void fill(int size) {
+        try {
+            while (available(size) < capacity) {
+                Maze maze = Maze.generate(size);
+                Path file = save(maze, size);
+                synchronized (this) {
+                    ready(size).addLast(new Spare(maze, file));
+                    notifyAll();
+                }
+            }
+        } finally {
+            synchronized (this) {
+                filling.remove(size);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Saves a maze to the spare directory. The maze is written to a temporary file first, so
+     * a spare that was only partly written (e.g. when the program exits) is never loaded.
+     * @param maze The maze to save.
+     * @param size The size of the maze.
+     * @return The file the maze was saved to, or {@code null} if it couldn't be saved.
+     */
+    private Path save(Maze maze, int size) {
+        if (spareDir == null) {
+            return null;
+        }
+        Path temp = null;
+        Path file = null;
+        try {
+            Files.createDirectories(spareDir);
+            temp = Files.createTempFile(spareDir, prefix(size), TEMP_EXTENSION);
+            BinaryFileLoader.write(maze, temp);
+            file = temp.resolveSibling(temp.getFileName().toString()
+                    .replace(TEMP_EXTENSION, BinaryFileLoader.EXTENSION));
+            synchronized (this) {
+                // Claims the file before it appears, so it isn't taken as an earlier run's
+                ownFiles.add(file);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            // Saving is best-effort; the maze is still kept in memory
+            if (temp != null) {
+                delete(temp);
+            }
+            if (file != null) {
+                synchronized (this) {
+                    ownFiles.remove(file);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Gets the mazes of a given size generated by this pool.
+     * @param size The size of the mazes.
+     * @return The mazes, oldest first.
+     */
+    private Deque<Spare> ready(int size) {
+        return ready.computeIfAbsent(size, s -> new ArrayDeque<>());
+    }
+
+    /**
+     * Gets the files of the spare mazes of a given size saved by earlier runs, deleting any
+     * stale temporary files of that size along the way.
+     * @param size The size of the mazes.
+     * @return The saved files (empty if there is no spare directory or it can't be read).
+     */
+    private List<Path> savedFiles(int size) {
+        List<Path> files = new ArrayList<>();
+        if (spareDir == null || !Files.isDirectory(spareDir)) {
+            return files;
+        }
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spareDir,
+                prefix(size) + "*{" + BinaryFileLoader.EXTENSION + "," + TEMP_EXTENSION + "}")) {
+            for (Path file : stream) {
+                if (file.toString().endsWith(BinaryFileLoader.EXTENSION)) {
+                    files.add(file);
+                } else if (isOlderThan(file, staleBefore)) {
+                    delete(file);
+                }
+            }
+        } catch (IOException e) {
+            // An unreadable directory is treated as having no spares
+        }
+        synchronized (this) {
+            files.removeIf(ownFiles::contains);
+        }
+        return files;
+    }
+
+    /**
+     * Checks if a file was last modified before a given time.
+     * @param file The file.
+     * @param millis The time in milliseconds since the epoch.
+     * @return Whether the file is older, or {@code false} if it has gone or can't be read.
+     */
+    private static boolean isOlderThan(Path file, long millis) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis() < millis;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the start of the names of spare files of a given size.
+     * @param size The size of the mazes.
+     * @return The prefix of the filenames.
+     */
+    private static String prefix(int size) {
+        return "maze%s-".formatted(size);
+    }
+
+    /**
+     * Deletes a file, ignoring any errors.
+     * @param file The file to delete.
+     */
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // The file will be skipped or overwritten later
+        }
+    }
+
+}
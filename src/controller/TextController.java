@@ -21,7 +21,18 @@ public class TextController extends Controller<TextView, String> {
      */
     public TextController(String filename)
             throws FileNotFoundException, MazeSizeMissmatchException, MazeMalformedException {
-        super(filename);
+        this(filename, null);
+    }
+
+    /**
+     * Creates a new text controller.
+     * @param filename The name of the file containing the maze data, or {@code null} to
+     *                 generate a maze.
+     * @param seed The seed to generate the maze from, or {@code null} for a random maze.
+     */
+    public TextController(String filename, Long seed)
+            throws FileNotFoundException, MazeSizeMissmatchException, MazeMalformedException {
+        super(filename, seed);
         this.view = new TextView(this.maze, filename);
         scanner = new Scanner(System.in);
     }
@@ -50,9 +61,16 @@ public class TextController extends Controller<TextView, String> {
         view.update();
         while (!mazeCompleted) {
             view.prompt();
+            if (!scanner.hasNextLine()) {
+                // Input has ended (e.g. the maze itself was piped in)
+                break;
+            }
             String input = scanner.nextLine();
-            if (input.equalsIgnoreCase("solve")) {
-                autoSolve();
+            String[] words = input.trim().split("\\s+");
+            if (words[0].equalsIgnoreCase("solve") && words.length <= 2) {
+                autoSolve(words.length == 2 ? words[1] : null);
+            } else if (input.equalsIgnoreCase("hint")) {
+                hint();
             } else {
                 userMoved(input);
             }
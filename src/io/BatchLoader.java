@@ -0,0 +1,358 @@
+package io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.Maze;
+import maze.SolutionCache;
+
+/**
+ * Loads and validates many maze files concurrently (see {@link FileLoader#loadMaze(Path)}).
+ * <p>
+ * At most a fixed number of files are loaded at once, and results are passed back on the
+ * calling thread as each file finishes, so the caller never has to synchronise. Only a few
+ * results are held waiting for the caller at a time, which keeps memory bounded however many
+ * files are loaded.
+ */
+public class BatchLoader {
+
+    /** Matches the names of every kind of maze file: text (optionally gzipped and/or
+     * run-length encoded, see {@link FileLoader}) and binary (see {@link BinaryFileLoader}). */
+    public static final String MAZE_GLOB = "*{.txt,.txt%2$s,%1$s,%1$s%2$s,%3$s}".formatted(
+            FileLoader.RUN_LENGTH_EXTENSION, FileLoader.GZIP_EXTENSION, BinaryFileLoader.EXTENSION);
+    /** The extensions of the files written next to mazes (solutions and partly written
+     * temporary files), which are never loaded as mazes even if they match a glob. */
+    private static final String[] SIDECAR_EXTENSIONS = {SolutionCache.EXTENSION, ".tmp"};
+
+    /** The number of results that may wait for the caller per loading thread. */
+    private static final int PENDING_PER_THREAD = 2;
+
+    private final int concurrency;
+
+    /**
+     * Creates a batch loader that loads as many files at once as there are processors.
+     */
+    public BatchLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch loader that loads up to the given number of files at once.
+     * @param concurrency The maximum number of files loaded at once.
+     * @throws IllegalArgumentException If the concurrency isn't positive.
+     */
+    public BatchLoader(int concurrency) throws IllegalArgumentException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Loads every maze file in a directory (see {@link #MAZE_GLOB}).
+     * @param dir The directory (used as is, without prepending {@code src}).
+     * @param onLoaded Called on the calling thread with each file's result as it finishes.
+     * @return The totals for the batch.
+     * @throws IOException If the directory can't be listed.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public Summary loadAll(Path dir, Consumer<Result> onLoaded) throws IOException,
+            InterruptedException {
+        return loadAll(dir, MAZE_GLOB, onLoaded);
+    }
+
+    /**
+     * Loads the files in a directory whose names match a glob (e.g. {@code *.txt}). Files
+     * written next to mazes (e.g. autosolver solutions) are always skipped.
+     * @param dir The directory (used as is, without prepending {@code src}).
+     * @param glob The pattern filenames must match (see
+     *             {@link java.nio.file.FileSystem#getPathMatcher}).
+     * @param onLoaded Called on the calling thread with each file's result as it finishes.
+     * @return The totals for the batch.
+     * @throws IOException If the directory can't be listed.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public Summary loadAll(Path dir, String glob, Consumer<Result> onLoaded) throws IOException,
+            InterruptedException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && !isSidecar(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        return loadAll(files, onLoaded);
+    }
+
+    /**
+     * Loads the given files.
+     * @param files The paths of the files (used as is, without prepending {@code src}).
+     * @param onLoaded Called on the calling thread with each file's result as it finishes.
+     *                 Results arrive in the order files finish, not the order given.
+     * @return The totals for the batch.
+     * @throws InterruptedException If the calling thread is interrupted while waiting. Files
+     *                              still loading are abandoned.
+     */
+    public Summary loadAll(List<Path> files, Consumer<Result> onLoaded)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new LoaderThreads());
+        CompletionService<Result> completed = new ExecutorCompletionService<>(executor);
+        long start = System.nanoTime();
+        int numFailed = 0;
+        long totalBytes = 0;
+        try {
+            // Keeps a bounded number of files submitted but not yet passed to the caller
+            Iterator<Path> remaining = files.iterator();
+            int pending = 0;
+            while (pending > 0 || remaining.hasNext()) {
+                while (pending < concurrency * PENDING_PER_THREAD && remaining.hasNext()) {
+                    Path file = remaining.next();
+                    completed.submit(() -> load(file));
+                    pending++;
+                }
+                Result result = completed.take().get();
+                pending--;
+                if (!result.isValid()) {
+                    numFailed++;
+                }
+                totalBytes += result.getBytes();
+                onLoaded.accept(result);
+            }
+        } catch (ExecutionException e) {
+            // Loading errors are caught by load, so anything else is a bug
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Summary(files.size(), numFailed, totalBytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Checks if a file was written next to a maze rather than being a maze itself.
+     * @param file The path of the file.
+     * @return Whether the file is a solution or temporary file.
+     */
+    private static boolean isSidecar(Path file) {
+        String name = file.getFileName().toString();
+        for (String extension : SIDECAR_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads a single file, binary or text, catching any error it raises.
+     * @param file The path of the file.
+     * @return The result of loading the file.
+     */
+    private static Result load(Path file) {
+        long start = System.nanoTime();
+        long bytes;
+        try {
+            bytes = Files.size(file);
+        } catch (IOException e) {
+            // The loader reports why the file can't be read
+            bytes = 0;
+        }
+        try {
+            Maze maze = file.toString().endsWith(BinaryFileLoader.EXTENSION)
+                    ? new BinaryFileLoader().loadMaze(file) : new FileLoader().loadMaze(file);
+            return new Result(file, maze, null, bytes, System.nanoTime() - start);
+        } catch (MazeMalformedException | MazeSizeMissmatchException | IllegalArgumentException
+                 | FileNotFoundException e) {
+            return new Result(file, null, e, bytes, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates the daemon threads files are loaded on, so an abandoned batch can't keep the
+     * program running.
+     */
+    private static class LoaderThreads implements ThreadFactory {
+
+        private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "maze-loader-" + NEXT_ID.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+    /**
+     * The result of loading one file of a batch.
+     */
+    public static class Result {
+
+        private final Path path;
+        private final Maze maze;
+        private final Exception error;
+        private final long bytes;
+        private final long nanos;
+
+        private Result(Path path, Maze maze, Exception error, long bytes, long nanos) {
+            this.path = path;
+            this.maze = maze;
+            this.error = error;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return The path of the file.
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * @return Whether the file loaded without errors.
+         */
+        public boolean isValid() {
+            return error == null;
+        }
+
+        /**
+         * @return The loaded maze, or {@code null} if the file is invalid.
+         */
+        public Maze getMaze() {
+            return maze;
+        }
+
+        /**
+         * @return Why the file is invalid (a {@link MazeMalformedException},
+         * {@link MazeSizeMissmatchException}, {@link IllegalArgumentException} or
+         * {@link FileNotFoundException}), or {@code null} if it loaded without errors.
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * @return The size of the file in bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return The time taken to load the file, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+    }
+
+    /**
+     * The totals for a batch of files.
+     */
+    public static class Summary {
+
+        private final int numFiles;
+        private final int numFailed;
+        private final long bytes;
+        private final long nanos;
+
+        private Summary(int numFiles, int numFailed, long bytes, long nanos) {
+            this.numFiles = numFiles;
+            this.numFailed = numFailed;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return The number of files loaded, including invalid files.
+         */
+        public int getNumFiles() {
+            return numFiles;
+        }
+
+        /**
+         * @return The number of invalid files.
+         */
+        public int getNumFailed() {
+            return numFailed;
+        }
+
+        /**
+         * @return The total size of the files in bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return The time taken to load the whole batch, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return The number of files loaded per second.
+         */
+        public double getFilesPerSecond() {
+            return numFiles * 1e9 / Math.max(nanos, 1);
+        }
+
+        /**
+         * @return The number of megabytes (10<sup>6</sup> bytes) loaded per second.
+         */
+        public double getMegabytesPerSecond() {
+            return bytes * 1e3 / Math.max(nanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            return "%s files (%s invalid), %.1f MB in %.2f s: %.1f files/s, %.1f MB/s".formatted(
+                    numFiles, numFailed, bytes / 1e6, nanos / 1e9, getFilesPerSecond(),
+                    getMegabytesPerSecond());
+        }
+
+    }
+
+    /**
+     * Loads a directory of maze files from the command line, printing each invalid file and
+     * the totals.
+     * @param args {@code <directory> [glob] [concurrency]}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: BatchLoader <directory> [glob] [concurrency]");
+            System.exit(1);
+        }
+        BatchLoader loader = args.length > 2 ? new BatchLoader(Integer.parseInt(args[2]))
+                : new BatchLoader();
+        Summary summary = loader.loadAll(Path.of(args[0]), args.length > 1 ? args[1] : MAZE_GLOB,
+                result -> {
+                    if (!result.isValid()) {
+                        System.out.println(result.getError().getMessage());
+                    }
+                });
+        System.out.println(summary);
+    }
+
+}
@@ -0,0 +1,365 @@
+package io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.Cell;
+import maze.EllerGenerator;
+import maze.Maze;
+import maze.MazeBuilder;
+import maze.Position;
+
+import static io.FileLoader.errMsg;
+
+/**
+ * Reads and writes mazes in a compact binary format, which takes about 8 times less space
+ * than the text format and needs no character checks to load.
+ * <p>
+ * A binary maze file is a 36 byte header followed by a bitmap of walls. All numbers are
+ * big-endian:
+ * <ul>
+ *     <li>The magic bytes {@code MAZE}.</li>
+ *     <li>The format version (a 16-bit number, currently {@value #VERSION}), followed by 16
+ *     reserved bits that must be zero.</li>
+ *     <li>The height and width of the maze (32-bit numbers).</li>
+ *     <li>The row and column of the start, then the row and column of the end (32-bit
+ *     numbers).</li>
+ *     <li>A CRC-32 checksum of the rest of the header and the bitmap.</li>
+ *     <li>One bit per cell in row-major order ({@code row * width + col}), starting with the
+ *     lowest bit of each byte. Set bits are walls.</li>
+ * </ul>
+ */
+public class BinaryFileLoader implements FileInterface {
+
+    /** The bytes every binary maze file starts with. */
+    private static final int MAGIC = 'M' << 24 | 'A' << 16 | 'Z' << 8 | 'E';
+    /** The usual extension of binary maze files. */
+    public static final String EXTENSION = ".bin";
+    /** The version of the format written by this class. */
+    public static final int VERSION = 1;
+    /** The number of bytes before the bitmap. */
+    private static final int HEADER_SIZE = 36;
+    /** The position in the header of the checksum. */
+    private static final int CHECKSUM_OFFSET = 32;
+    /** The size of the buffer used when writing the bitmap. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** The largest region of the bitmap mapped into memory at once. */
+    private static final long MAP_REGION_SIZE = 1L << 30;
+
+    @Override
+    public char[][] load(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        Maze maze = loadMaze(filename);
+        char[][] mazeData = new char[maze.getNumRows()][maze.getNumCols()];
+        maze.forEachPos(pos -> mazeData[pos.getRow()][pos.getCol()] =
+                maze.getCell(pos).toFileChar());
+        return mazeData;
+    }
+
+    /**
+     * Loads a maze from a binary maze file.
+     * @param filename The name of the file. {@code src} is prepended to the filename.
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the checksum doesn't match, the edges aren't all walls
+     *                                or the start/end points are invalid.
+     * @throws MazeSizeMissmatchException If the size of the bitmap doesn't match the
+     *                                    dimensions.
+     * @throws IllegalArgumentException If the file isn't a binary maze file (or is a version
+     *                                  that isn't supported), or has invalid dimensions.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMaze(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadMaze(File.resolve(filename), filename);
+    }
+
+    /**
+     * Loads a maze from the binary maze file at the given path (see
+     * {@link #loadMaze(String)}).
+     * @param path The path of the file (used as is, without prepending {@code src}).
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the checksum doesn't match, the edges aren't all walls
+     *                                or the start/end points are invalid.
+     * @throws MazeSizeMissmatchException If the size of the bitmap doesn't match the
+     *                                    dimensions.
+     * @throws IllegalArgumentException If the file isn't a binary maze file (or is a version
+     *                                  that isn't supported), or has invalid dimensions.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMaze(Path path) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        return loadMaze(path, path.toString());
+    }
+
+    /**
+     * Loads a maze from the binary maze file at the given path.
+     * @param path The path of the file.
+     * @param filename The name of the file (needed for error messages).
+     * @return The loaded maze.
+     */
+    private Maze loadMaze(Path path, String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, 0, filename, true);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(errMsg("File could not be found", filename));
+        } catch (IOException e) {
+            throw new FileNotFoundException(errMsg("File could not be read", filename));
+        }
+    }
+
+    /**
+     * Reads a maze stored in the binary format from the given position to the end of a
+     * channel, memory-mapping the wall bitmap.
+     * @param channel The channel to read from.
+     * @param offset The position in the channel where the binary maze starts.
+     * @param filename The name of the file (needed for error messages).
+     * @param verify Whether to check the checksum. Mazes written by this program (e.g.
+     *               {@link CachedFileLoader}'s caches) can skip the check, which is the only
+     *               part of loading besides setting cells that reads every byte.
+     * @return The loaded maze.
+     * @throws IOException When the channel can't be read.
+     */
+    static Maze read(FileChannel channel, long offset, String filename, boolean verify)
+            throws MazeMalformedException, MazeSizeMissmatchException, IllegalArgumentException,
+            IOException {
+
+        // Reads and checks the header
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, offset + header.position()) == -1) {
+                break;
+            }
+        }
+        if (header.position() == 0) {
+            throw new IllegalArgumentException(errMsg("File is empty", filename));
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IllegalArgumentException(errMsg("Not a binary maze file", filename));
+        }
+        int version = header.getShort();
+        if (version != VERSION || header.getShort() != 0) {
+            throw new IllegalArgumentException(errMsg(
+                    "Unsupported binary maze version: %s".formatted(version), filename));
+        }
+        int height = header.getInt();
+        int width = header.getInt();
+        FileLoader.checkDimensions(height, width, filename);
+        Position start = new Position(header.getInt(), header.getInt());
+        Position end = new Position(header.getInt(), header.getInt());
+        int checksum = header.getInt(CHECKSUM_OFFSET);
+
+        // Rejects bitmaps of the wrong size before allocating the maze's cells
+        long numCells = (long) height * width;
+        long bitmapSize = bitmapSize(numCells);
+        if (channel.size() - offset != HEADER_SIZE + bitmapSize) {
+            throw new MazeSizeMissmatchException(errMsg(
+                    "Size of the wall bitmap doesn't match the dimensions", filename));
+        }
+        MazeBuilder builder;
+        try {
+            builder = new MazeBuilder(height, width);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(errMsg(e.getMessage(), filename));
+        }
+
+        // Maps the bitmap one region at a time, setting eight cells from each byte
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, CHECKSUM_OFFSET);
+        long cell = 0;
+        for (long mapped = 0; mapped < bitmapSize; mapped += MAP_REGION_SIZE) {
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                    offset + HEADER_SIZE + mapped, Math.min(MAP_REGION_SIZE, bitmapSize - mapped));
+            if (verify) {
+                crc.update(region.duplicate());
+            }
+            while (region.hasRemaining()) {
+                int walls = region.get() & 0xFF;
+                if (numCells - cell < 8) {
+                    // Ignores the padding after the last cell
+                    walls &= (1 << (numCells - cell)) - 1;
+                }
+                builder.setWalls(cell, walls);
+                cell += 8;
+            }
+        }
+        if (verify && (int) crc.getValue() != checksum) {
+            throw new MazeMalformedException(errMsg(
+                    "Checksum doesn't match the maze data", filename));
+        }
+
+        // Ensures edges only contain walls
+        for (int row = 0; row < height; row++) {
+            int step = row == 0 || row == height - 1 ? 1 : width - 1;
+            for (int col = 0; col < width; col += step) {
+                if (builder.getCell(row, col) != Cell.WALL) {
+                    throw new MazeMalformedException(errMsg(
+                            "Non-wall cell found at edge of maze", filename));
+                }
+            }
+        }
+
+        // Places the start and end on open cells
+        if (!isOpenCell(start, height, width, builder) || !isOpenCell(end, height, width,
+                builder) || start.equals(end)) {
+            throw new MazeMalformedException(errMsg(
+                    "Invalid start and/or end point", filename));
+        }
+        builder.setCell(start.getRow(), start.getCol(), Cell.START);
+        builder.setCell(end.getRow(), end.getCol(), Cell.END);
+        return builder.build();
+    }
+
+    /**
+     * Checks if a position is inside the maze and isn't a wall.
+     * @param pos The position to check.
+     * @param height The height of the maze.
+     * @param width The width of the maze.
+     * @param builder The builder containing the maze's walls.
+     * @return Whether the position is an open cell.
+     */
+    private static boolean isOpenCell(Position pos, int height, int width,
+                                      MazeBuilder builder) {
+        return pos.getRow() >= 0 && pos.getRow() < height && pos.getCol() >= 0
+                && pos.getCol() < width
+                && builder.getCell(pos.getRow(), pos.getCol()) != Cell.WALL;
+    }
+
+    /**
+     * Writes a maze to a file in the binary format.
+     * @param maze The maze to write.
+     * @param path The path of the file to write (used as is, without prepending {@code src}).
+     * @throws IOException When the file can't be written.
+     */
+    public static void write(Maze maze, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(maze, channel, 0);
+        }
+    }
+
+    /**
+     * Writes the maze from a generator to a file in the binary format, one row at a time, so
+     * the whole maze is never held in memory.
+     * @param generator The generator of the maze (which must not have generated any rows).
+     * @param path The path of the file to write (used as is, without prepending {@code src}).
+     * @throws IOException When the file can't be written.
+     */
+    public static void write(EllerGenerator generator, Path path) throws IOException {
+        int numCols = generator.getNumCols();
+        LongPredicate isWall = new LongPredicate() {
+            private Cell[] row;
+
+            @Override
+            public boolean test(long cell) {
+                int col = (int) (cell % numCols);
+                if (col == 0) {
+                    row = generator.nextRow();
+                }
+                return row[col] == Cell.WALL;
+            }
+        };
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(generator.getNumRows(), numCols, generator.getStart(), generator.getEnd(),
+                    isWall, channel, 0);
+        }
+    }
+
+    /**
+     * Writes a maze in the binary format to a channel, starting at the given position.
+     * @param maze The maze to write.
+     * @param channel The channel to write to.
+     * @param offset The position in the channel to start writing at.
+     * @throws IOException When the channel can't be written.
+     */
+    static void write(Maze maze, FileChannel channel, long offset) throws IOException {
+        write(maze.getNumRows(), maze.getNumCols(), maze.positionOf(maze.getStartIndex()),
+                maze.positionOf(maze.getEndIndex()), maze::isWall, channel, offset);
+    }
+
+    /**
+     * Writes a maze in the binary format to a channel, starting at the given position.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param start The position of the start.
+     * @param end The position of the end.
+     * @param isWall Whether the cell at each index ({@code row * numCols + col}) is a wall.
+     *               Cells are checked once each, in order, so this can generate the maze as
+     *               it is written.
+     * @param channel The channel to write to.
+     * @param offset The position in the channel to start writing at.
+     * @throws IOException When the channel can't be written.
+     */
+    static void write(int numRows, int numCols, Position start, Position end,
+                      LongPredicate isWall, FileChannel channel, long offset) throws IOException {
+        long numCells = (long) numRows * numCols;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0)
+                .putInt(numRows).putInt(numCols)
+                .putInt(start.getRow()).putInt(start.getCol())
+                .putInt(end.getRow()).putInt(end.getCol());
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, CHECKSUM_OFFSET);
+
+        // Writes the bitmap after space for the header, since the checksum covers it
+        channel.position(offset + HEADER_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (long cell = 0; cell < numCells; cell += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8 && cell + bit < numCells; bit++) {
+                if (isWall.test(cell + bit)) {
+                    bits |= 1 << bit;
+                }
+            }
+            buffer.put((byte) bits);
+            if (!buffer.hasRemaining()) {
+                writeBitmap(channel, buffer, crc);
+            }
+        }
+        writeBitmap(channel, buffer, crc);
+
+        header.putInt((int) crc.getValue());
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, offset + header.position());
+        }
+    }
+
+    /**
+     * Writes the bytes in a buffer to a channel, adding them to a checksum.
+     * @param channel The channel to write to.
+     * @param buffer The buffer to write (which is cleared afterwards).
+     * @param crc The checksum to update.
+     * @throws IOException When the bytes can't be written.
+     */
+    private static void writeBitmap(FileChannel channel, ByteBuffer buffer, CRC32 crc)
+            throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Gets the number of bytes in the wall bitmap of a maze.
+     * @param numCells The number of cells in the maze.
+     * @return The number of bytes needed for one bit per cell.
+     */
+    private static long bitmapSize(long numCells) {
+        return (numCells + 7) / 8;
+    }
+
+}
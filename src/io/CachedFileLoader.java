@@ -0,0 +1,317 @@
+package io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.Maze;
+
+import static io.FileLoader.errMsg;
+
+/**
+ * Loads text maze files through a cache of already validated mazes, stored in the binary
+ * format (see {@link BinaryFileLoader}) in a cache directory. Each maze file's cache is named
+ * after its absolute path (see {@link #cacheOf(Path)}), so loading a maze never writes
+ * anything next to it.
+ * <p>
+ * A cache file is a 32 byte header followed by the maze in the binary format. All numbers are
+ * big-endian:
+ * <ul>
+ *     <li>The magic bytes {@code MZCA}.</li>
+ *     <li>The cache version (a 16-bit number, currently {@value #VERSION}), followed by 16
+ *     reserved bits that must be zero.</li>
+ *     <li>The size of the maze file in bytes (a 64-bit number).</li>
+ *     <li>The last modified time of the maze file in nanoseconds since the epoch (a 64-bit
+ *     number).</li>
+ *     <li>A CRC-32C checksum of the maze file (a 64-bit number).</li>
+ * </ul>
+ * The cache is used when the maze file's size and last modified time match. If only the time
+ * differs (e.g. the file was copied or touched), the maze file is hashed and the cache is
+ * still used if the hash matches. Otherwise the maze file is loaded as usual (see
+ * {@link FileLoader#loadMapped(String)}) and the cache is replaced. Caches are written
+ * best-effort, so mazes are simply loaded without one if the cache directory can't be written.
+ */
+public class CachedFileLoader {
+
+    /** The system property giving the cache directory ({@link #defaultCacheDir()}). */
+    public static final String CACHE_DIR_PROPERTY = "maze.cacheDir";
+    /** The file extension of cache files. */
+    public static final String CACHE_EXTENSION = ".cache";
+    /** The bytes every cache file starts with. */
+    private static final int MAGIC = 'M' << 24 | 'Z' << 16 | 'C' << 8 | 'A';
+    /** The version of the cache format written by this class. */
+    public static final int VERSION = 1;
+    /** The number of bytes before the binary maze. */
+    private static final int HEADER_SIZE = 32;
+    /** The position in the header of the maze file's last modified time. */
+    private static final int MODIFIED_OFFSET = 16;
+    /** The largest region of a maze file mapped into memory at once when hashing it. */
+    private static final long MAP_REGION_SIZE = 1L << 30;
+    /** The number of bytes of the hash of a maze file's path used in its cache's name. */
+    private static final int KEY_BYTES = 8;
+
+    /** The directory caches are stored in, or {@code null} if mazes aren't cached. */
+    private final Path cacheDir;
+
+    /**
+     * Creates a loader that stores caches in the default cache directory (see
+     * {@link #defaultCacheDir()}).
+     */
+    public CachedFileLoader() {
+        this(defaultCacheDir());
+    }
+
+    /**
+     * Creates a loader that stores caches in the given directory, which is created when the
+     * first cache is written.
+     * @param cacheDir The cache directory, or {@code null} to load mazes without caching them.
+     */
+    public CachedFileLoader(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Gets the cache directory used by default. This is {@code mazegame-cache} in the
+     * system's temporary directory, unless the {@value #CACHE_DIR_PROPERTY} system property is
+     * set, and setting it to an empty string disables caching.
+     * @return The cache directory, or {@code null} if mazes shouldn't be cached.
+     */
+    public static Path defaultCacheDir() {
+        String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir == null) {
+            return Path.of(System.getProperty("java.io.tmpdir"), "mazegame-cache");
+        }
+        return dir.isEmpty() ? null : Path.of(dir);
+    }
+
+    /**
+     * Loads a maze from a text maze file, using its cache if the file hasn't changed.
+     * @param filename The name of the file. {@code src} is prepended to the filename.
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMaze(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadMaze(File.resolve(filename), filename);
+    }
+
+    /**
+     * Loads a maze from the text maze file at the given path (see {@link #loadMaze(String)}).
+     * @param path The path of the file (used as is, without prepending {@code src}).
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMaze(Path path) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        return loadMaze(path, path.toString());
+    }
+
+    /**
+     * Gets the path of the cache file of a maze file. The cache is named after the maze file
+     * and a hash of its absolute path, so maze files with the same name in different
+     * directories have different caches.
+     * @param path The path of the maze file.
+     * @return The path of its cache file, or {@code null} if mazes aren't cached.
+     */
+    public Path cacheOf(Path path) {
+        if (cacheDir == null) {
+            return null;
+        }
+        byte[] key;
+        try {
+            key = MessageDigest.getInstance("SHA-256").digest(
+                    path.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        return cacheDir.resolve("%s-%s%s".formatted(path.getFileName(),
+                HexFormat.of().formatHex(key, 0, KEY_BYTES), CACHE_EXTENSION));
+    }
+
+    /**
+     * Loads a maze from the text maze file at the given path, using its cache if the file
+     * hasn't changed.
+     * @param path The path of the file.
+     * @param filename The name of the file (needed for error messages).
+     * @return The loaded maze.
+     */
+    private Maze loadMaze(Path path, String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(errMsg("File could not be found", filename));
+        } catch (IOException e) {
+            throw new FileNotFoundException(errMsg("File could not be read", filename));
+        }
+
+        Path cache = cacheOf(path);
+        if (cache == null) {
+            return new FileLoader().loadMapped(path, filename);
+        }
+        Maze maze = readCache(path, cache, attributes, filename);
+        if (maze == null) {
+            maze = new FileLoader().loadMapped(path, filename);
+            writeCache(path, cache, attributes, maze);
+        }
+        return maze;
+    }
+
+    /**
+     * Reads the maze stored in a cache file, if the cache is up to date.
+     * @param path The path of the maze file.
+     * @param cache The path of the cache file.
+     * @param attributes The attributes of the maze file.
+     * @param filename The name of the maze file (needed for error messages).
+     * @return The cached maze, or {@code null} if the cache doesn't exist, can't be read or is
+     *         out of date.
+     */
+    private static Maze readCache(Path path, Path cache, BasicFileAttributes attributes,
+                                  String filename) {
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) == -1) {
+                    return null;
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC || header.getShort() != VERSION
+                    || header.getShort() != 0 || header.getLong() != attributes.size()) {
+                return null;
+            }
+            long modified = header.getLong();
+            long hash = header.getLong();
+            if (modified != modifiedTime(attributes)) {
+                if (hash != hashOf(path)) {
+                    return null;
+                }
+                // The contents haven't changed, so only the time needs updating
+                refreshModifiedTime(cache, attributes);
+            }
+            return BinaryFileLoader.read(channel, HEADER_SIZE, filename, false);
+        } catch (IOException | MazeMalformedException | MazeSizeMissmatchException
+                 | IllegalArgumentException e) {
+            // A missing, unreadable or damaged cache is treated as a cache miss
+            return null;
+        }
+    }
+
+    /**
+     * Saves a maze to a cache file, along with the details of the maze file it was loaded
+     * from. The cache is written to a temporary file first so a partly written cache is never
+     * read.
+     * @param path The path of the maze file.
+     * @param cache The path of the cache file.
+     * @param attributes The attributes of the maze file when it was loaded.
+     * @param maze The loaded maze.
+     */
+    private static void writeCache(Path path, Path cache, BasicFileAttributes attributes,
+                                   Maze maze) {
+        Path temp = null;
+        try {
+            long hash = hashOf(path);
+            BasicFileAttributes current = Files.readAttributes(path, BasicFileAttributes.class);
+            if (current.size() != attributes.size()
+                    || modifiedTime(current) != modifiedTime(attributes)) {
+                // The maze file changed while it was being loaded
+                return;
+            }
+
+            Files.createDirectories(cache.toAbsolutePath().getParent());
+            temp = Files.createTempFile(cache.toAbsolutePath().getParent(),
+                    cache.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0)
+                        .putLong(attributes.size()).putLong(modifiedTime(attributes))
+                        .putLong(hash).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                BinaryFileLoader.write(maze, channel, HEADER_SIZE);
+            }
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Caching is best-effort; the maze has still been loaded
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+                // The temporary file is left behind
+            }
+        }
+    }
+
+    /**
+     * Updates the last modified time of a maze file stored in its cache.
+     * @param cache The path of the cache file.
+     * @param attributes The attributes of the maze file.
+     */
+    private static void refreshModifiedTime(Path cache, BasicFileAttributes attributes) {
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.WRITE)) {
+            ByteBuffer modified = ByteBuffer.allocate(Long.BYTES)
+                    .putLong(modifiedTime(attributes)).flip();
+            while (modified.hasRemaining()) {
+                channel.write(modified, MODIFIED_OFFSET + modified.position());
+            }
+        } catch (IOException e) {
+            // The maze file will just be hashed again next time
+        }
+    }
+
+    /**
+     * Gets the last modified time of a file.
+     * @param attributes The attributes of the file.
+     * @return The last modified time in nanoseconds since the epoch.
+     */
+    private static long modifiedTime(BasicFileAttributes attributes) {
+        return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Hashes the contents of a file by memory-mapping it.
+     * @param path The path of the file.
+     * @return The CRC-32C checksum of the file.
+     * @throws IOException When the file can't be read.
+     */
+    static long hashOf(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long offset = 0; offset < size; offset += MAP_REGION_SIZE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(MAP_REGION_SIZE, size - offset)));
+            }
+        }
+        return crc.getValue();
+    }
+
+}
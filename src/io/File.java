@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -11,6 +12,15 @@ import java.util.List;
  */
 public class File {
 
+    /**
+     * Gets the path of a file.
+     * @param filename The name of the file. {@code src} is prepended to the filename.
+     * @return The path of the file.
+     */
+    public static Path resolve(String filename) {
+        return Path.of("src", filename);
+    }
+
     /**
      * Gets the lines in a text file.
      * @param filename The name of the file. {@code src} is prepended to the filename.
@@ -20,7 +30,7 @@ public class File {
      * due to the file not being found.
      */
     public static List<String> readLines(String filename) throws FileNotFoundException {
-        try (BufferedReader r = new BufferedReader(new FileReader("src/" + filename))) {
+        try (BufferedReader r = new BufferedReader(new FileReader(resolve(filename).toFile()))) {
             return r.lines().toList();
         } catch (IOException e) {
             throw new FileNotFoundException();
@@ -1,11 +1,22 @@
 package io;
 
+import java.io.EOFException;
 import java.io.FileNotFoundException;
-import java.time.temporal.ValueRange;
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 import exceptions.*;
+import maze.Maze;
 
 /**
  * A utility class for reading maze data from a file.
@@ -14,8 +25,14 @@ public class FileLoader implements FileInterface {
 
     /** The minimum dimension of the maze. */
     private static final int MIN_DIMENSION = 5;
-    /** The maximum dimension of the maze. */
-    private static final int MAX_DIMENSION = 999;
+    /** The size of the buffer used when streaming a maze from a file or stream. */
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    /** The largest region of a file mapped into memory at once. */
+    private static final long MAP_REGION_SIZE = 1L << 30;
+    /** The extension of gzipped maze files. */
+    public static final String GZIP_EXTENSION = ".gz";
+    /** The extension of run-length encoded maze files (see {@link RunLengthChannel}). */
+    public static final String RUN_LENGTH_EXTENSION = ".rle";
 
     /**
      * Generates an error message for an error relating to a file.
@@ -23,7 +40,7 @@ public class FileLoader implements FileInterface {
      * @param filename The name of the file where the error was caused.
      * @return An error message including the message body and filename.
      */
-    private static String errMsg(String msg, String filename) {
+    static String errMsg(String msg, String filename) {
         return "%s (filename: %s)".formatted(msg, filename);
     }
 
@@ -71,60 +88,224 @@ public class FileLoader implements FileInterface {
 
         // Extract maze characters and check for valid dimensions/characters
         char[][] mazeData = new char[height][width];
-        boolean atEdge;
-        boolean startFound = false;
-        boolean endFound = false;
+        RowValidator validator = new RowValidator(height, width, filename);
         for (int row = 0; row < height; row++) {
-
             String line = lines.get(row + 1);
-            if (line.length() != width) {
-                throw new MazeSizeMissmatchException(
-                        errMsg("Maze contains a row that doesn't match the given width", filename));
-            }
+            validator.check(row, line);
+            line.getChars(0, width, mazeData[row], 0);
+        }
+        validator.finish();
+
+        return mazeData;
+
+    }
+
+    /**
+     * Loads a maze from a file in a single pass, validating each byte as it is read and writing
+     * it straight into the maze (see {@link MazeParser}). Only a fixed-size buffer is used
+     * besides the maze itself, so mazes loaded this way can be far larger than those returned
+     * by {@link #load(String)}, and a malformed file fails at its first bad byte. Files ending
+     * in {@value #GZIP_EXTENSION} and/or {@value #RUN_LENGTH_EXTENSION} are decoded as they are
+     * read.
+     * @param filename The name of the file. {@code src} is prepended to the filename.
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMaze(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadMaze(File.resolve(filename), filename);
+    }
+
+    /**
+     * Loads a maze from a file at the given path in a single pass (see
+     * {@link #loadMaze(String)}).
+     * @param path The path of the file (used as is, without prepending {@code src}).
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMaze(Path path) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        return loadMaze(path, path.toString());
+    }
+
+    /**
+     * Loads a maze from a stream (e.g. standard input or a pipe) in a single pass (see
+     * {@link #loadMaze(String)}). The stream is read until it ends, but isn't closed.
+     * @param in The stream to read the maze file from.
+     * @param name The name of the stream (used in error messages).
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the stream can't be read.
+     */
+    public Maze loadMaze(InputStream in, String name) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadMaze(Channels.newChannel(in), name);
+    }
+
+    /**
+     * Loads a maze from a channel in a single pass (see {@link #loadMaze(String)}). The
+     * channel is read until it ends, but isn't closed.
+     * @param channel The channel to read the maze file from.
+     * @param name The name of the channel (used in error messages).
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the channel can't be read.
+     */
+    public Maze loadMaze(ReadableByteChannel channel, String name) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        try {
+            return parse(channel, new MazeParser(name, -1));
+        } catch (IOException e) {
+            throw new FileNotFoundException(errMsg("File could not be read", name));
+        }
+    }
 
-            // Checks each cell
-            for (int col = 0; col < width; col++) {
-                char cell = line.charAt(col);
-                if (!validChar(cell)) {
-                    throw new IllegalArgumentException(errMsg(
-                            "Invalid maze character found: '%s'".formatted(cell), filename));
-                }
-
-                // Ensures edges only contain wall (#) characters
-                atEdge = row == 0 || row == height - 1 || col == 0 || col == width - 1;
-                if (atEdge && cell != '#') {
-                    throw new MazeMalformedException(errMsg(
-                            "Invalid character at edge of maze", filename));
-                }
-
-                // Ensures there aren't too many start/end points
-                if (cell == 'S') {
-                    if (startFound) {
-                        throw new MazeMalformedException(errMsg(
-                                "Multiple start points found", filename));
-                    }
-                    startFound = true;
-                }
-                if (cell == 'E') {
-                    if (endFound) {
-                        throw new MazeMalformedException(errMsg(
-                                "Multiple end points found", filename));
-                    }
-                    endFound = true;
-                }
-
-                mazeData[row][col] = cell;
+    /**
+     * Loads a maze from a file at the given path in a single pass.
+     * @param path The path of the file.
+     * @param filename The name of the file (needed for error messages).
+     * @return The loaded maze.
+     */
+    private Maze loadMaze(Path path, String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (!isCompressed(filename)) {
+                return parse(channel, new MazeParser(filename, channel.size()));
             }
+            return parse(decompress(channel, filename), new MazeParser(filename, -1));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(errMsg("File could not be found", filename));
+        } catch (ZipException | EOFException e) {
+            throw new IllegalArgumentException(errMsg("Compressed data is corrupt", filename));
+        } catch (IOException e) {
+            throw new FileNotFoundException(errMsg("File could not be read", filename));
+        }
+    }
+
+    /**
+     * Checks if a maze file is gzipped and/or run-length encoded, based on its extension.
+     * @param filename The name of the file.
+     * @return Whether the file needs decoding before it can be parsed.
+     */
+    static boolean isCompressed(String filename) {
+        return filename.endsWith(GZIP_EXTENSION) || filename.endsWith(RUN_LENGTH_EXTENSION);
+    }
 
+    /**
+     * Wraps a channel so that reading it decodes a gzipped and/or run-length encoded maze file
+     * (see {@link RunLengthChannel}) into the plain text format, a buffer-full at a time.
+     * @param channel The channel to read the file from.
+     * @param filename The name of the file, whose extensions give the encodings used.
+     * @return A channel of the decoded file.
+     * @throws IOException When the gzip header can't be read.
+     */
+    private static ReadableByteChannel decompress(ReadableByteChannel channel, String filename)
+            throws IOException {
+        String name = filename;
+        if (name.endsWith(GZIP_EXTENSION)) {
+            channel = Channels.newChannel(new GZIPInputStream(Channels.newInputStream(channel),
+                    READ_BUFFER_SIZE));
+            name = name.substring(0, name.length() - GZIP_EXTENSION.length());
         }
+        if (name.endsWith(RUN_LENGTH_EXTENSION)) {
+            channel = new RunLengthChannel(channel, filename);
+        }
+        return channel;
+    }
 
-        // Ensures start/end points were found
-        if (!startFound || !endFound) {
-            throw new MazeMalformedException(errMsg("Missing start and/or end point", filename));
+    /**
+     * Feeds everything read from a channel to a parser, one buffer-full at a time.
+     * @param channel The channel to read from.
+     * @param parser The parser to feed.
+     * @return The parsed maze.
+     * @throws IOException When the channel can't be read.
+     */
+    private static Maze parse(ReadableByteChannel channel, MazeParser parser) throws IOException,
+            MazeMalformedException, MazeSizeMissmatchException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            parser.parse(buffer);
+            buffer.clear();
         }
+        return parser.finish();
+    }
 
-        return mazeData;
+    /**
+     * Loads a maze by memory-mapping its file and validating the mapped bytes in place, so
+     * the file is never copied onto the heap (see {@link MazeParser}). This checks everything
+     * {@link #load(String)} does. Compressed files are streamed instead (see
+     * {@link #loadMaze(String)}).
+     * @param filename The name of the file. {@code src} is prepended to the filename.
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMapped(String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        return loadMapped(File.resolve(filename), filename);
+    }
+
+    /**
+     * Loads a maze by memory-mapping the file at the given path (see
+     * {@link #loadMapped(String)}).
+     * @param path The path of the file (used as is, without prepending {@code src}).
+     * @return The loaded maze.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors, or when the maze is too
+     *                                  large to store.
+     * @throws FileNotFoundException If the maze file is not found or can't be read.
+     */
+    public Maze loadMapped(Path path) throws MazeMalformedException, MazeSizeMissmatchException,
+            IllegalArgumentException, FileNotFoundException {
+        return loadMapped(path, path.toString());
+    }
 
+    /**
+     * Loads a maze by memory-mapping the file at the given path.
+     * @param path The path of the file.
+     * @param filename The name of the file (needed for error messages).
+     * @return The loaded maze.
+     */
+    Maze loadMapped(Path path, String filename) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, FileNotFoundException {
+        if (isCompressed(filename)) {
+            // Compressed files have to be decoded as they are read, so can't be mapped
+            return loadMaze(path, filename);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MazeParser parser = new MazeParser(filename, size);
+
+            // Files larger than a single mapping are mapped one region at a time
+            for (long offset = 0; offset < size; offset += MAP_REGION_SIZE) {
+                long regionSize = Math.min(MAP_REGION_SIZE, size - offset);
+                parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, offset, regionSize));
+            }
+            return parser.finish();
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(errMsg("File could not be found", filename));
+        } catch (IOException e) {
+            throw new FileNotFoundException(errMsg("File could not be read", filename));
+        }
     }
 
     /**
@@ -135,7 +316,7 @@ public class FileLoader implements FileInterface {
      * @param filename The name of the file (needed for error messages).
      * @return An array containing the height and width of the maze (in that order).
      */
-    private int[] getDimensions(String line, String filename) {
+    static int[] getDimensions(String line, String filename) {
 
         // Splits the line
         String[] tokens = line.split(" ");
@@ -155,20 +336,28 @@ public class FileLoader implements FileInterface {
                     errMsg("Dimensions must be valid numbers", filename));
         }
 
+        checkDimensions(height, width, filename);
+        return new int[]{height, width};
+
+    }
+
+    /**
+     * Checks that maze dimensions are suitable (at least the minimum dimension, and odd).
+     * @param height The height of the maze.
+     * @param width The width of the maze.
+     * @param filename The name of the file (needed for error messages).
+     */
+    static void checkDimensions(int height, int width, String filename) {
         // Ensures dimensions are in the valid range and odd
         for (int dimension : new int[]{height, width}) {
-            if (dimension < MIN_DIMENSION || dimension > MAX_DIMENSION) {
-                throw new IllegalArgumentException(
-                        errMsg("Height and width must be between %s and %s (inclusive)"
-                                .formatted(MIN_DIMENSION, MAX_DIMENSION), filename));
+            if (dimension < MIN_DIMENSION) {
+                throw new IllegalArgumentException(errMsg(
+                        "Height and width must be at least %s".formatted(MIN_DIMENSION), filename));
             }
             if (dimension % 2 != 1) {
                 throw new IllegalArgumentException(errMsg("Dimensions must be odd", filename));
             }
         }
-
-        return new int[]{height, width};
-
     }
 
 }
@@ -0,0 +1,199 @@
+package io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.GZIPOutputStream;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.Cell;
+import maze.EllerGenerator;
+import maze.Maze;
+
+/**
+ * Converts maze files between the text format (read by {@link FileLoader}, including its
+ * gzipped and run-length encoded variants) and the binary format (read by
+ * {@link BinaryFileLoader}).
+ */
+public class MazeConverter {
+
+    /** The size of the buffers used when writing text maze files. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Converts a text maze file to a binary maze file.
+     * @param text The path of the text file to read.
+     * @param binary The path of the binary file to write.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the maze dimensions do not match the provided size.
+     * @throws IllegalArgumentException For other validation errors.
+     * @throws IOException If the text file can't be read or the binary file can't be written.
+     */
+    public static void textToBinary(Path text, Path binary) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, IOException {
+        BinaryFileLoader.write(new FileLoader().loadMaze(text), binary);
+    }
+
+    /**
+     * Converts a binary maze file to a text maze file.
+     * @param binary The path of the binary file to read.
+     * @param text The path of the text file to write.
+     * @throws MazeMalformedException If the maze data is not correctly formatted.
+     * @throws MazeSizeMissmatchException If the bitmap size doesn't match the dimensions.
+     * @throws IllegalArgumentException For other validation errors.
+     * @throws IOException If the binary file can't be read or the text file can't be written.
+     */
+    public static void binaryToText(Path binary, Path text) throws MazeMalformedException,
+            MazeSizeMissmatchException, IllegalArgumentException, IOException {
+        writeText(new BinaryFileLoader().loadMaze(binary), text);
+    }
+
+    /**
+     * Writes a maze to a file in the text format, one row at a time. The file is run-length
+     * encoded if its name ends in {@value FileLoader#RUN_LENGTH_EXTENSION} (before any
+     * {@value FileLoader#GZIP_EXTENSION}), and gzipped if it ends in
+     * {@value FileLoader#GZIP_EXTENSION}.
+     * @param maze The maze to write.
+     * @param path The path of the file to write (used as is, without prepending {@code src}).
+     * @throws IOException When the file can't be written.
+     */
+    public static void writeText(Maze maze, Path path) throws IOException {
+        writeText(maze.getNumRows(), maze.getNumCols(), (line, row) -> {
+            long index = (long) row * line.length;
+            for (int col = 0; col < line.length; col++) {
+                line[col] = maze.getCell(index + col).toFileChar();
+            }
+        }, path);
+    }
+
+    /**
+     * Writes the maze from a generator to a file in the text format, one row at a time, so the
+     * whole maze is never held in memory. The file is compressed based on its extension (see
+     * {@link #writeText(Maze, Path)}).
+     * @param generator The generator of the maze (which must not have generated any rows).
+     * @param path The path of the file to write (used as is, without prepending {@code src}).
+     * @throws IOException When the file can't be written.
+     */
+    public static void writeText(EllerGenerator generator, Path path) throws IOException {
+        writeText(generator.getNumRows(), generator.getNumCols(), (line, row) -> {
+            Cell[] cells = generator.nextRow();
+            for (int col = 0; col < line.length; col++) {
+                line[col] = cells[col].toFileChar();
+            }
+        }, path);
+    }
+
+    /**
+     * Writes a maze to a file in the text format, one row at a time.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param rows Fills in the characters of each row, called once per row in order.
+     * @param path The path of the file to write.
+     * @throws IOException When the file can't be written.
+     */
+    private static void writeText(int numRows, int numCols, ObjIntConsumer<char[]> rows,
+                                  Path path) throws IOException {
+        String name = path.getFileName().toString();
+        boolean gzip = name.endsWith(FileLoader.GZIP_EXTENSION);
+        if (gzip) {
+            name = name.substring(0, name.length() - FileLoader.GZIP_EXTENSION.length());
+        }
+        boolean runLength = name.endsWith(FileLoader.RUN_LENGTH_EXTENSION);
+
+        OutputStream out = Files.newOutputStream(path);
+        if (gzip) {
+            out = new GZIPOutputStream(out, WRITE_BUFFER_SIZE);
+        }
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out,
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+            writer.write("%s %s".formatted(numRows, numCols));
+            writer.newLine();
+            char[] line = new char[numCols];
+            for (int row = 0; row < numRows; row++) {
+                rows.accept(line, row);
+                if (runLength) {
+                    writeRuns(writer, line);
+                } else {
+                    writer.write(line);
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes a row as runs of repeated characters (see {@link RunLengthChannel}).
+     * @param writer The writer to write to.
+     * @param line The characters of the row.
+     * @throws IOException When the row can't be written.
+     */
+    private static void writeRuns(Writer writer, char[] line) throws IOException {
+        int runStart = 0;
+        while (runStart < line.length) {
+            int runEnd = runStart + 1;
+            while (runEnd < line.length && line[runEnd] == line[runStart]) {
+                runEnd++;
+            }
+            if (runEnd - runStart > 1) {
+                writer.write(Integer.toString(runEnd - runStart));
+            }
+            writer.write(line[runStart]);
+            runStart = runEnd;
+        }
+    }
+
+    /**
+     * Converts a maze file from the command line.
+     * @param args {@code binary <text file> <binary file>} to convert a text file to the binary
+     *             format, {@code text <binary file> <text file>} to convert back, or
+     *             {@code generate <size> <seed> <text file>} to write the maze generated from a
+     *             seed (see {@link Maze#generate(int, long)}), or
+     *             {@code stream <rows> <columns> <seed> <file>} to write a maze of any size a
+     *             row at a time (see {@link EllerGenerator}), in the binary format if the file
+     *             ends in {@value BinaryFileLoader#EXTENSION}. Text files are compressed based
+     *             on their extensions (see {@link #writeText(Maze, Path)}).
+     */
+    public static void main(String[] args) {
+        boolean convert = args.length == 3
+                && (args[0].equals("binary") || args[0].equals("text"));
+        boolean generate = args.length == 4 && args[0].equals("generate");
+        boolean stream = args.length == 5 && args[0].equals("stream");
+        if (!convert && !generate && !stream) {
+            System.err.println("Usage: MazeConverter binary|text <input file> <output file>");
+            System.err.println("       MazeConverter generate <size> <seed> <output file>");
+            System.err.println("       MazeConverter stream <rows> <columns> <seed> <output file>");
+            System.exit(1);
+        }
+        try {
+            if (stream) {
+                EllerGenerator generator = new EllerGenerator(Integer.parseInt(args[1]),
+                        Integer.parseInt(args[2]), Long.parseLong(args[3]));
+                Path output = Path.of(args[4]);
+                if (output.toString().endsWith(BinaryFileLoader.EXTENSION)) {
+                    BinaryFileLoader.write(generator, output);
+                } else {
+                    writeText(generator, output);
+                }
+            } else if (generate) {
+                writeText(Maze.generate(Integer.parseInt(args[1]), Long.parseLong(args[2])),
+                        Path.of(args[3]));
+            } else if (args[0].equals("binary")) {
+                textToBinary(Path.of(args[1]), Path.of(args[2]));
+            } else {
+                binaryToText(Path.of(args[1]), Path.of(args[2]));
+            }
+        } catch (MazeMalformedException | MazeSizeMissmatchException | IllegalArgumentException
+                 | IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package io;
+
+import java.nio.ByteBuffer;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.Cell;
+import maze.Maze;
+import maze.MazeBuilder;
+
+import static io.FileLoader.errMsg;
+
+/**
+ * Parses a maze file from raw bytes, fed in as they become available (e.g. one mapped region
+ * or one buffer-full at a time). Every byte is validated as it arrives and written straight
+ * into the maze, so the first invalid byte fails the parse without reading any further, and
+ * nothing but the maze itself is kept.
+ * <p>
+ * Rows may end with {@code \n}, {@code \r\n} or {@code \r}, and the last row doesn't need a
+ * line ending (the same as {@link java.io.BufferedReader#readLine()}).
+ */
+class MazeParser {
+
+    /** The length of the longest header accepted (more than enough for two numbers). */
+    private static final int MAX_HEADER_LENGTH = 64;
+    /** The cell type of each byte value, or {@code null} for bytes that aren't maze
+     * characters. */
+    private static final Cell[] CELLS = new Cell[256];
+
+    static {
+        for (char c : new char[]{' ', '.', '#', 'S', 'E'}) {
+            CELLS[c] = Cell.newCell(c);
+        }
+    }
+
+    private final String filename;
+    /** The total number of bytes that will be fed in, or -1 if it isn't known. */
+    private final long inputSize;
+    private final StringBuilder header = new StringBuilder();
+    /** Whether any bytes have been fed in yet. */
+    private boolean started;
+    /** Whether the last byte was a {@code \r} (so a following {@code \n} is skipped). */
+    private boolean afterCarriageReturn;
+    private int height;
+    private int width;
+    private MazeBuilder builder;
+    private RowValidator validator;
+    /** The row being read ({@code height} once every row has been read). */
+    private int row;
+    /** The column of the next cell in the current row. */
+    private int col;
+
+    /**
+     * Creates a new parser.
+     * @param filename The name of the file (needed for error messages).
+     * @param inputSize The total number of bytes that will be fed in, or -1 if it isn't known.
+     *                  When known, a file too short for its dimensions is rejected before the
+     *                  maze is allocated.
+     */
+    MazeParser(String filename, long inputSize) {
+        this.filename = filename;
+        this.inputSize = inputSize;
+    }
+
+    /**
+     * Parses the next bytes of the file.
+     * @param bytes The bytes to parse (from their position to their limit).
+     */
+    void parse(ByteBuffer bytes) throws MazeMalformedException, MazeSizeMissmatchException {
+        started |= bytes.hasRemaining();
+        while (bytes.hasRemaining()) {
+            byte b = bytes.get();
+            if (afterCarriageReturn) {
+                afterCarriageReturn = false;
+                if (b == '\n') {
+                    continue;
+                }
+            }
+            if (builder == null) {
+                parseHeader(b);
+            } else if (row == height) {
+                // Any content after the last row is an extra row
+                throw new MazeSizeMissmatchException(
+                        errMsg("Number of maze rows doesn't match specified height", filename));
+            } else {
+                parseCell(b);
+            }
+        }
+    }
+
+
+    /**
+     * Finishes parsing once every byte has been fed in.
+     * @return The parsed maze.
+     */
+    Maze finish() throws MazeMalformedException, MazeSizeMissmatchException {
+        if (!started) {
+            throw new IllegalArgumentException(errMsg("File is empty", filename));
+        }
+        if (builder == null) {
+            // The file only contains the header
+            startRows();
+        }
+        if (row == height - 1 && col > 0) {
+            // The last row doesn't have a line ending
+            validator.checkWidth(col);
+            row++;
+        }
+        if (row != height) {
+            throw new MazeSizeMissmatchException(
+                    errMsg("Number of maze rows doesn't match specified height", filename));
+        }
+        validator.finish();
+        return builder.build();
+    }
+
+    /**
+     * Parses a byte of the header (the first line of the file).
+     * @param b The byte.
+     */
+    private void parseHeader(byte b) throws MazeSizeMissmatchException {
+        if (b == '\n' || b == '\r') {
+            afterCarriageReturn = b == '\r';
+            startRows();
+        } else if (header.length() == MAX_HEADER_LENGTH) {
+            throw new IllegalArgumentException(errMsg(
+                    "First line must contain dimensions separated by a single space", filename));
+        } else {
+            header.append((char) (b & 0xFF));
+        }
+    }
+
+    /**
+     * Reads the dimensions from the header and allocates the maze.
+     */
+    private void startRows() throws MazeSizeMissmatchException {
+        int[] dimensions = FileLoader.getDimensions(header.toString(), filename);
+        height = dimensions[0];
+        width = dimensions[1];
+
+        // Rejects files that are too short to hold the maze before allocating its cells
+        if (inputSize >= 0 && inputSize - header.length() < (long) height * width) {
+            throw new MazeSizeMissmatchException(
+                    errMsg("Number of maze rows doesn't match specified height", filename));
+        }
+        try {
+            builder = new MazeBuilder(height, width);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(errMsg(e.getMessage(), filename));
+        }
+        validator = new RowValidator(height, width, filename);
+    }
+
+    /**
+     * Parses a byte of a row (either a cell or a line ending).
+     * @param b The byte.
+     */
+    private void parseCell(byte b) throws MazeMalformedException, MazeSizeMissmatchException {
+        if (b == '\n' || b == '\r') {
+            afterCarriageReturn = b == '\r';
+            validator.checkWidth(col);
+            row++;
+            col = 0;
+            return;
+        }
+        if (col == width) {
+            validator.checkWidth(col + 1);
+        }
+        // Walls, and paths away from the edge, are always valid so skip the full checks
+        Cell cell = CELLS[b & 0xFF];
+        boolean atEdge = row == 0 || row == height - 1 || col == 0 || col == width - 1;
+        if (cell != Cell.WALL && (cell != Cell.PATH || atEdge)) {
+            validator.checkCell(row, col, (char) (b & 0xFF));
+        }
+        builder.setCell(row, col, cell);
+        col++;
+    }
+
+}
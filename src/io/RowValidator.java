@@ -0,0 +1,102 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+
+import static io.FileLoader.errMsg;
+import static io.FileLoader.validChar;
+
+/**
+ * Checks the rows of a maze one at a time (or one cell at a time), as they are read.
+ */
+class RowValidator {
+
+    private final int height;
+    private final int width;
+    private final String filename;
+    private boolean startFound;
+    private boolean endFound;
+
+    /**
+     * Creates a validator for a maze with the given dimensions.
+     * @param height The number of rows in the maze.
+     * @param width The number of columns in the maze.
+     * @param filename The name of the file (needed for error messages).
+     */
+    RowValidator(int height, int width, String filename) {
+        this.height = height;
+        this.width = width;
+        this.filename = filename;
+    }
+
+    /**
+     * Checks that a row has the right width and only contains valid characters, that edge
+     * cells are walls, and that there is at most one start and end point so far.
+     * @param row The number of the row.
+     * @param line The characters of the row.
+     */
+    void check(int row, String line) throws MazeMalformedException, MazeSizeMissmatchException {
+        checkWidth(line.length());
+        for (int col = 0; col < width; col++) {
+            checkCell(row, col, line.charAt(col));
+        }
+    }
+
+    /**
+     * Checks that a row has the right width.
+     * @param length The number of characters in the row.
+     */
+    void checkWidth(int length) throws MazeSizeMissmatchException {
+        if (length != width) {
+            throw new MazeSizeMissmatchException(
+                    errMsg("Maze contains a row that doesn't match the given width", filename));
+        }
+    }
+
+    /**
+     * Checks that a cell is a valid character, that it is a wall if it is at the edge, and
+     * that it isn't a second start or end point.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param cell The character of the cell.
+     */
+    void checkCell(int row, int col, char cell) throws MazeMalformedException {
+        if (!validChar(cell)) {
+            throw new IllegalArgumentException(errMsg(
+                    "Invalid maze character found: '%s'".formatted(cell), filename));
+        }
+
+        // Ensures edges only contain wall (#) characters
+        boolean atEdge = row == 0 || row == height - 1 || col == 0 || col == width - 1;
+        if (atEdge && cell != '#') {
+            throw new MazeMalformedException(errMsg(
+                    "Invalid character at edge of maze", filename));
+        }
+
+        // Ensures there aren't too many start/end points
+        if (cell == 'S') {
+            if (startFound) {
+                throw new MazeMalformedException(errMsg(
+                        "Multiple start points found", filename));
+            }
+            startFound = true;
+        }
+        if (cell == 'E') {
+            if (endFound) {
+                throw new MazeMalformedException(errMsg(
+                        "Multiple end points found", filename));
+            }
+            endFound = true;
+        }
+    }
+
+    /**
+     * Checks that the start and end points were found, once every row has been checked.
+     */
+    void finish() throws MazeMalformedException {
+        if (!startFound || !endFound) {
+            throw new MazeMalformedException(errMsg("Missing start and/or end point", filename));
+        }
+    }
+
+}
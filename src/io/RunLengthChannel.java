@@ -0,0 +1,119 @@
+package io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import static io.FileLoader.errMsg;
+
+/**
+ * Decodes a run-length encoded maze file into the plain text format as it is read.
+ * <p>
+ * The first line (the dimensions) is the same as in the plain format. In every row after it,
+ * each run of a repeated character is written as the number of repeats followed by the
+ * character, with the number left out for runs of one (e.g. {@code 7#} or {@code #S3 #}).
+ * Rows are still separated by line breaks.
+ */
+class RunLengthChannel implements ReadableByteChannel {
+
+    /** The size of the buffer of encoded bytes. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel source;
+    private final String filename;
+    /** Encoded bytes read from the source but not decoded yet. */
+    private final ByteBuffer encoded = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    /** Whether the first line is still being read. */
+    private boolean inHeader = true;
+    /** The number of repeats read so far for the next run. */
+    private long count;
+    /** Whether any digits of a number of repeats have been read for the next run. */
+    private boolean hasCount;
+    /** The character of the run being decoded. */
+    private byte runByte;
+    /** The number of repeats of {@link #runByte} still to be decoded. */
+    private long runRemaining;
+
+    /**
+     * Creates a decoder for an encoded channel.
+     * @param source The channel to read encoded bytes from.
+     * @param filename The name of the file (needed for error messages).
+     */
+    RunLengthChannel(ReadableByteChannel source, String filename) {
+        this.source = source;
+        this.filename = filename;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int written = 0;
+        while (dst.hasRemaining()) {
+            if (runRemaining > 0) {
+                int repeats = (int) Math.min(runRemaining, dst.remaining());
+                for (int i = 0; i < repeats; i++) {
+                    dst.put(runByte);
+                }
+                runRemaining -= repeats;
+                written += repeats;
+                continue;
+            }
+            if (!encoded.hasRemaining()) {
+                if (written > 0) {
+                    // Returns what has been decoded before reading any more
+                    break;
+                }
+                encoded.clear();
+                int read = source.read(encoded);
+                encoded.flip();
+                if (read == -1) {
+                    if (hasCount) {
+                        throw new IllegalArgumentException(errMsg(
+                                "Run length isn't followed by a character", filename));
+                    }
+                    return -1;
+                }
+                continue;
+            }
+
+            byte b = encoded.get();
+            if (inHeader) {
+                dst.put(b);
+                written++;
+                inHeader = b != '\n' && b != '\r';
+            } else if (b >= '0' && b <= '9') {
+                count = count * 10 + (b - '0');
+                hasCount = true;
+                if (count > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException(errMsg("Run length too long", filename));
+                }
+            } else if (b == '\n' || b == '\r') {
+                if (hasCount) {
+                    throw new IllegalArgumentException(errMsg(
+                            "Run length isn't followed by a character", filename));
+                }
+                dst.put(b);
+                written++;
+            } else {
+                if (hasCount && count == 0) {
+                    throw new IllegalArgumentException(errMsg("Run length of zero", filename));
+                }
+                runByte = b;
+                runRemaining = hasCount ? count : 1;
+                count = 0;
+                hasCount = false;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+}
@@ -0,0 +1,85 @@
+package maze;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A solver that always expands the cell with the lowest estimated route length (A* search),
+ * using the Manhattan distance to the end as the estimate. Since the estimate never
+ * overestimates, the route found is always a shortest route.
+ */
+public class AStarSolver implements MazeSolver {
+
+    @Override
+    public MazeSearch start(Maze maze) {
+        return new Search(maze);
+    }
+
+    /**
+     * The state of an A* search.
+     */
+    private static class Search extends GridSearch {
+
+        private final int endRow;
+        private final int endCol;
+        private final CellSet closed;
+        private final PackedGrid cameFrom;
+        /** Cells waiting to be expanded. Entries are prioritised by estimated route length; the
+         * distance travelled so far is recovered by subtracting the estimate again, so it
+         * doesn't need storing per cell. */
+        private final CellHeap open;
+
+        private Search(Maze maze) {
+            super(maze);
+            this.endRow = (int) (maze.getEndIndex() / numCols);
+            this.endCol = (int) (maze.getEndIndex() % numCols);
+            this.closed = new CellSet(maze.getNumCells());
+            this.cameFrom = new PackedGrid(maze.getNumCells());
+            this.open = new CellHeap();
+            open.add(distance(maze.getStartIndex()), 0, maze.getStartIndex());
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return open.size();
+        }
+
+        @Override
+        protected SolvedPath expandNext(LongConsumer onReached) {
+            open.remove();
+            long cell = open.removedCell();
+            if (closed.contains(cell)) {
+                // A shorter route to this cell was already expanded
+                return null;
+            }
+            closed.add(cell);
+            if (cell != maze.getStartIndex()) {
+                cameFrom.set(cell, open.removedDir());
+                if (onReached != null) {
+                    onReached.accept(cell);
+                }
+            }
+            if (cell == maze.getEndIndex()) {
+                return traceBack(cameFrom, cell);
+            }
+            long travelled = open.removedPriority() - distance(cell);
+            for (Direction dir : Direction.ALL_DIRECTIONS) {
+                long next = cell + dir.indexOffset(numCols);
+                if (!maze.isWall(next) && !closed.contains(next)) {
+                    open.add(travelled + 1 + distance(next), dir.ordinal(), next);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets the Manhattan distance from a cell to the end of the maze.
+         * @param cell The index of the cell.
+         * @return The Manhattan distance from the cell to the end of the maze.
+         */
+        private long distance(long cell) {
+            return Math.abs(cell / numCols - endRow) + Math.abs(cell % numCols - endCol);
+        }
+
+    }
+
+}
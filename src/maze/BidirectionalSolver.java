@@ -0,0 +1,114 @@
+package maze;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A solver that searches breadth-first from both the start and the end at once, one layer
+ * at a time from whichever side has the smaller frontier, until the two searches meet. The
+ * route found is always a shortest route.
+ */
+public class BidirectionalSolver implements MazeSolver {
+
+    @Override
+    public MazeSearch start(Maze maze) {
+        return new Search(maze);
+    }
+
+    /**
+     * The state of a bidirectional search.
+     */
+    private static class Search extends GridSearch {
+
+        /** Cells reached from the start, and the direction moved to reach each one. */
+        private final CellSet forwardVisited;
+        private final PackedGrid forwardFrom;
+        private final CellQueue forwardFrontier;
+        /** Cells reached from the end, and the direction moved (away from the end) to reach
+         * each one. */
+        private final CellSet backwardVisited;
+        private final PackedGrid backwardFrom;
+        private final CellQueue backwardFrontier;
+        /** Whether the layer being expanded belongs to the search from the start. */
+        private boolean forward;
+        /** The number of cells left to expand in the current layer. */
+        private int remainingInLayer;
+
+        private Search(Maze maze) {
+            super(maze);
+            this.forwardVisited = new CellSet(maze.getNumCells());
+            this.forwardFrom = new PackedGrid(maze.getNumCells());
+            this.forwardFrontier = new CellQueue();
+            this.backwardVisited = new CellSet(maze.getNumCells());
+            this.backwardFrom = new PackedGrid(maze.getNumCells());
+            this.backwardFrontier = new CellQueue();
+            forwardVisited.add(maze.getStartIndex());
+            forwardFrontier.add(maze.getStartIndex());
+            backwardVisited.add(maze.getEndIndex());
+            backwardFrontier.add(maze.getEndIndex());
+        }
+
+        @Override
+        public int getFrontierSize() {
+            // The search can't continue once either side runs out of cells
+            return Math.min(forwardFrontier.size(), backwardFrontier.size()) == 0
+                    ? 0 : forwardFrontier.size() + backwardFrontier.size();
+        }
+
+        /**
+         * Expands the next cell in the current layer. Layers are expanded whole, and since each
+         * side's reached cells are exactly those within some distance of its origin, the first
+         * cell reached by both sides lies on a shortest route.
+         */
+        @Override
+        protected SolvedPath expandNext(LongConsumer onReached) {
+            if (remainingInLayer == 0) {
+                forward = forwardFrontier.size() <= backwardFrontier.size();
+                remainingInLayer = forward ? forwardFrontier.size() : backwardFrontier.size();
+            }
+            CellQueue frontier = forward ? forwardFrontier : backwardFrontier;
+            CellSet visited = forward ? forwardVisited : backwardVisited;
+            PackedGrid cameFrom = forward ? forwardFrom : backwardFrom;
+            CellSet otherVisited = forward ? backwardVisited : forwardVisited;
+
+            long cell = frontier.remove();
+            remainingInLayer--;
+            for (Direction dir : Direction.ALL_DIRECTIONS) {
+                long next = cell + dir.indexOffset(numCols);
+                if (!maze.isWall(next) && !visited.contains(next)) {
+                    reach(next, dir, visited, cameFrom, onReached);
+                    if (otherVisited.contains(next)) {
+                        return join(next);
+                    }
+                    frontier.add(next);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Joins the route from the start to the meeting cell with the route from the meeting
+         * cell to the end.
+         * @param meeting The index of a cell reached by both sides.
+         * @return The route from the start of the maze to the end.
+         */
+        private SolvedPath join(long meeting) {
+            long start = maze.getStartIndex();
+            long end = maze.getEndIndex();
+            long forwardLength = countSteps(forwardFrom, start, meeting);
+            long backwardLength = countSteps(backwardFrom, end, meeting);
+            PackedGrid steps = new PackedGrid(forwardLength + backwardLength);
+            writeSteps(forwardFrom, start, meeting, steps, 0);
+
+            // The backward search moved away from the end, so its steps are reversed
+            long cell = meeting;
+            for (long i = forwardLength; cell != end; i++) {
+                Direction dir = Direction.fromOrdinal(backwardFrom.get(cell));
+                steps.set(i, dir.opposite().ordinal());
+                cell -= dir.indexOffset(numCols);
+            }
+            return new SolvedPath(start, steps);
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package maze;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A solver that searches outwards from the start one layer at a time (breadth-first), so the
+ * route found is always a shortest route.
+ */
+public class BreadthFirstSolver implements MazeSolver {
+
+    @Override
+    public MazeSearch start(Maze maze) {
+        return new Search(maze);
+    }
+
+    /**
+     * The state of a breadth-first search.
+     */
+    private static class Search extends GridSearch {
+
+        private final CellSet visited;
+        private final PackedGrid cameFrom;
+        private final CellQueue frontier;
+
+        private Search(Maze maze) {
+            super(maze);
+            this.visited = new CellSet(maze.getNumCells());
+            this.cameFrom = new PackedGrid(maze.getNumCells());
+            this.frontier = new CellQueue();
+            visited.add(maze.getStartIndex());
+            frontier.add(maze.getStartIndex());
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return frontier.size();
+        }
+
+        @Override
+        protected SolvedPath expandNext(LongConsumer onReached) {
+            long cell = frontier.remove();
+            if (cell == maze.getEndIndex()) {
+                return traceBack(cameFrom, cell);
+            }
+            for (Direction dir : Direction.ALL_DIRECTIONS) {
+                long next = cell + dir.indexOffset(numCols);
+                if (!maze.isWall(next) && !visited.contains(next)) {
+                    reach(next, dir, visited, cameFrom, onReached);
+                    frontier.add(next);
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
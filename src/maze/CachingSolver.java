@@ -0,0 +1,182 @@
+package maze;
+
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+import exceptions.MazeUnsolveableException;
+
+/**
+ * A solver that checks a {@link SolutionCache} (and optionally a solution file) before
+ * searching, and replays a cached route without searching at all when there is one. Routes
+ * found by searching are added to the cache.
+ */
+public class CachingSolver implements MazeSolver {
+
+    private final MazeSolver solver;
+    private final SolutionCache cache;
+    /** The file solutions are saved to, or {@code null} if they are only cached in memory. */
+    private final Path file;
+
+    /**
+     * Creates a new caching solver.
+     * @param solver The solver used when there is no cached solution.
+     * @param cache The cache of solutions.
+     * @param file The file solutions are saved to, or {@code null} to only cache them in memory.
+     */
+    public CachingSolver(MazeSolver solver, SolutionCache cache, Path file) {
+        this.solver = solver;
+        this.cache = cache;
+        this.file = file;
+    }
+
+    @Override
+    public MazeSearch start(Maze maze) {
+        long hash = maze.getContentHash();
+        String cached = cache.get(hash);
+        if (cached == null && file != null) {
+            cached = SolutionCache.load(file, hash);
+        }
+        if (cached != null) {
+            try {
+                SolvedPath route = SolvedPath.fromRunLength(maze.getStartIndex(), cached);
+                if (leadsToEnd(maze, route)) {
+                    cache.put(hash, cached);
+                    return new CachedSearch(route);
+                }
+            } catch (IllegalArgumentException e) {
+                // A malformed solution is treated as a cache miss
+            }
+        }
+        return new RecordingSearch(solver.start(maze), hash);
+    }
+
+    /**
+     * Checks that a route leads from the start of a maze to its end without passing through
+     * any walls.
+     * @param maze The maze.
+     * @param route The route to check.
+     * @return Whether the route is a solution to the maze.
+     */
+    private static boolean leadsToEnd(Maze maze, SolvedPath route) {
+        long cell = route.getStartIndex();
+        for (long i = 0; i < route.length(); i++) {
+            cell += route.getStep(i).indexOffset(maze.getNumCols());
+            if (cell < 0 || cell >= maze.getNumCells() || maze.isWall(cell)) {
+                return false;
+            }
+        }
+        return cell == maze.getEndIndex();
+    }
+
+    /**
+     * A search that has already finished, with a route taken from the cache.
+     */
+    private static class CachedSearch implements MazeSearch {
+
+        private final SolvedPath route;
+
+        private CachedSearch(SolvedPath route) {
+            this.route = route;
+        }
+
+        @Override
+        public boolean advance(int budget, LongConsumer onReached) {
+            return true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public long getExpanded() {
+            return 0;
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return 0;
+        }
+
+        @Override
+        public SolvedPath getResult() {
+            return route;
+        }
+
+    }
+
+    /**
+     * A search that adds its route to the cache once it is found.
+     */
+    private class RecordingSearch implements MazeSearch {
+
+        private final MazeSearch search;
+        private final long hash;
+        private boolean recorded;
+
+        private RecordingSearch(MazeSearch search, long hash) {
+            this.search = search;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean advance(int budget, LongConsumer onReached) {
+            boolean finished = search.advance(budget, onReached);
+            if (finished && !recorded && !search.isCancelled()) {
+                recorded = true;
+                try {
+                    String solution = search.getResult().toRunLength();
+                    cache.put(hash, solution);
+                    if (file != null) {
+                        SolutionCache.save(file, hash, solution);
+                    }
+                } catch (MazeUnsolveableException e) {
+                    // Only solutions are cached
+                }
+            }
+            return finished;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return search.isFinished();
+        }
+
+        @Override
+        public void cancel() {
+            search.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return search.isCancelled();
+        }
+
+        @Override
+        public long getExpanded() {
+            return search.getExpanded();
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return search.getFrontierSize();
+        }
+
+        @Override
+        public SolvedPath getResult() throws MazeUnsolveableException, IllegalStateException {
+            return search.getResult();
+        }
+
+    }
+
+}
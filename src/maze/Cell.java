@@ -9,6 +9,9 @@ public enum Cell {
 
     private Direction lastDir = null;
 
+    /** Every cell type, indexed by ordinal (cached since {@link #values()} copies the array). */
+    private static final Cell[] VALUES = values();
+
     /**
      * Creates a new cell from a maze file character.
      * @param fileChar The character to convert to a cell.
@@ -25,4 +28,26 @@ public enum Cell {
         };
     }
 
+    /**
+     * Gets the maze file character for this cell type (the reverse of {@link #newCell(char)}).
+     * @return The character used for this cell type in maze files.
+     */
+    public char toFileChar() {
+        return switch (this) {
+            case WALL -> '#';
+            case PATH -> ' ';
+            case START -> 'S';
+            case END -> 'E';
+        };
+    }
+
+    /**
+     * Gets the cell type with the given ordinal.
+     * @param ordinal The ordinal of the cell type.
+     * @return The cell type with that ordinal.
+     */
+    public static Cell fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
 }
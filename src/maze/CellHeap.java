@@ -0,0 +1,124 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A min-priority queue of cell indices, each tagged with the direction it was reached from.
+ * Entries are kept in a binary heap of primitive arrays, so no objects are allocated per entry.
+ */
+class CellHeap {
+
+    /** The initial capacity of the heap. */
+    private static final int INITIAL_CAPACITY = 64;
+    /** The number of bits used to store the direction of an entry. */
+    private static final int DIR_BITS = 2;
+
+    /** The priority of each entry, shifted left to hold its direction in the lowest bits. */
+    private long[] keys;
+    /** The cell index of each entry. */
+    private long[] cells;
+    private int size;
+    /** The cell index of the entry most recently removed. */
+    private long removedCell;
+    /** The key of the entry most recently removed. */
+    private long removedKey;
+
+    /**
+     * Creates a new empty heap.
+     */
+    CellHeap() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.cells = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Checks if the heap is empty.
+     * @return Whether the heap is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of entries in the heap.
+     * @return The number of entries in the heap.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds a cell to the heap.
+     * @param priority The priority of the cell (lower priorities are removed first).
+     * @param dir The ordinal of the direction the cell was reached from.
+     * @param cell The index of the cell.
+     */
+    void add(long priority, int dir, long cell) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        long key = priority << DIR_BITS | dir;
+        int i = size++;
+        while (i > 0 && keys[(i - 1) / 2] > key) {
+            keys[i] = keys[(i - 1) / 2];
+            cells[i] = cells[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        keys[i] = key;
+        cells[i] = cell;
+    }
+
+    /**
+     * Removes the entry with the lowest priority. Its details can then be read with
+     * {@link #removedCell()}, {@link #removedDir()} and {@link #removedPriority()}.
+     * @require The heap isn't empty.
+     */
+    void remove() {
+        removedKey = keys[0];
+        removedCell = cells[0];
+        size--;
+        long lastKey = keys[size];
+        long lastCell = cells[size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[child] >= lastKey) {
+                break;
+            }
+            keys[i] = keys[child];
+            cells[i] = cells[child];
+            i = child;
+        }
+        keys[i] = lastKey;
+        cells[i] = lastCell;
+    }
+
+    /**
+     * Gets the cell index of the entry most recently removed.
+     * @return The cell index.
+     */
+    long removedCell() {
+        return removedCell;
+    }
+
+    /**
+     * Gets the direction ordinal of the entry most recently removed.
+     * @return The ordinal of the direction the cell was reached from.
+     */
+    int removedDir() {
+        return (int) (removedKey & ((1 << DIR_BITS) - 1));
+    }
+
+    /**
+     * Gets the priority of the entry most recently removed.
+     * @return The priority of the entry.
+     */
+    long removedPriority() {
+        return removedKey >>> DIR_BITS;
+    }
+
+}
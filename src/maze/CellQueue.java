@@ -0,0 +1,77 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A first-in first-out queue of cell indices, backed by a growable ring buffer.
+ */
+class CellQueue {
+
+    /** The initial capacity of the queue. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] items;
+    /** The position of the first item in {@link #items}. */
+    private int head;
+    private int size;
+
+    /**
+     * Creates a new empty queue.
+     */
+    CellQueue() {
+        this.items = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Gets the number of items in the queue.
+     * @return The number of items in the queue.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the queue is empty.
+     * @return Whether the queue is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an item to the back of the queue.
+     * @param item The item to add.
+     */
+    void add(long item) {
+        if (size == items.length) {
+            // Unrolls the ring buffer into a larger array
+            long[] larger = Arrays.copyOfRange(items, head, head + items.length * 2);
+            System.arraycopy(items, 0, larger, items.length - head, head);
+            items = larger;
+            head = 0;
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+    }
+
+    /**
+     * Removes the item at the front of the queue.
+     * @return The item that was removed.
+     * @require The queue isn't empty.
+     */
+    long remove() {
+        long item = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return item;
+    }
+
+    /**
+     * Removes every item from the queue.
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+}
@@ -0,0 +1,38 @@
+package maze;
+
+/**
+ * A set of cell indices, stored as one bit per cell.
+ */
+class CellSet {
+
+    /** log2 of the number of bits in a {@code long}. */
+    private static final int SHIFT = 6;
+
+    private final long[] words;
+
+    /**
+     * Creates a new empty set.
+     * @param numCells The number of cells in the maze.
+     */
+    CellSet(long numCells) {
+        this.words = new long[(int) ((numCells + 63) >>> SHIFT)];
+    }
+
+    /**
+     * Checks if a cell is in the set.
+     * @param cell The index of the cell.
+     * @return Whether the cell is in the set.
+     */
+    boolean contains(long cell) {
+        return (words[(int) (cell >>> SHIFT)] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Adds a cell to the set.
+     * @param cell The index of the cell.
+     */
+    void add(long cell) {
+        words[(int) (cell >>> SHIFT)] |= 1L << cell;
+    }
+
+}
@@ -1,7 +1,5 @@
 package maze;
 
-import java.util.function.Consumer;
-
 /**
  * A direction in which the user can move inside a maze.
  */
@@ -16,6 +14,8 @@ public enum Direction {
     private final int colChange;
 
     public static final Direction[] ALL_DIRECTIONS = {DOWN, RIGHT, UP, LEFT};
+    /** Every direction, indexed by ordinal (cached since {@link #values()} copies the array). */
+    private static final Direction[] VALUES = values();
 
     public int getRowChange() {
         return rowChange;
@@ -25,6 +25,25 @@ public enum Direction {
         return colChange;
     }
 
+    /**
+     * Gets the direction with the given ordinal.
+     * @param ordinal The ordinal of the direction.
+     * @return The direction with that ordinal.
+     */
+    public static Direction fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Gets the change in cell index ({@code row * numCols + col}) caused by moving one cell in
+     * this direction.
+     * @param numCols The number of columns in the grid.
+     * @return The amount to add to a cell index to move in this direction.
+     */
+    public int indexOffset(int numCols) {
+        return rowChange * numCols + colChange;
+    }
+
     Direction(int rowChange, int colChange) {
         this.rowChange = rowChange;
         this.colChange = colChange;
@@ -67,6 +86,19 @@ public enum Direction {
         return Direction.create(rowChange, colChange);
     }
 
+    /**
+     * Gets the direction opposite to this direction.
+     * @return The opposite direction (up for down, left for right and vice versa).
+     */
+    public Direction opposite() {
+        return switch (this) {
+            case UP -> DOWN;
+            case DOWN -> UP;
+            case LEFT -> RIGHT;
+            case RIGHT -> LEFT;
+        };
+    }
+
     /**
      * Finds whether this direction is opposite to another direction
      * (up is opposite to down, left is opposite to right).
@@ -0,0 +1,261 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a random maze one row at a time with Eller's algorithm, so mazes far larger than
+ * the heap can be written straight to a file (see {@link io.MazeConverter}).
+ * <p>
+ * As with {@link MazeGenerator}, the cells at odd rows and columns (nodes) are paths and are
+ * joined into a single tree, so the maze is always solveable, its edges are all walls, and it
+ * starts at the top left and ends at the bottom right. Only the sets of the current row of
+ * nodes are kept (joined with a union-find structure over one label per node in the row), so
+ * memory use is proportional to the width of the maze.
+ * <p>
+ * The same size and seed always give the same rows, on any JVM (though not the same maze as
+ * {@link Maze#generate(int, long)}).
+ */
+public class EllerGenerator {
+
+    private final int numRows;
+    private final int numCols;
+    /** The number of nodes in each row. */
+    private final int nodesPerRow;
+    /** The number of rows of nodes. */
+    private final int nodeRows;
+    private final SplittableRandom random;
+
+    /** The set label of each node in the current row of nodes. */
+    private final int[] sets;
+    /** The parent of each set label (itself for root labels), used when joining sets. */
+    private final int[] parents;
+    /** The new label of each old label, used when relabelling the sets of a row. */
+    private final int[] relabelled;
+    /** Whether each set of the current row has a path down to the next row. */
+    private final boolean[] goesDown;
+    /** Whether the wall to the right of each node in the current row is open. */
+    private final boolean[] openRight;
+    /** Whether the wall below each node in the current row is open. */
+    private final boolean[] openDown;
+
+    /** The cells of the last row returned. */
+    private final Cell[] row;
+    /** The index of the next row to return. */
+    private int nextRow;
+
+    /**
+     * Creates a generator of a random maze.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @throws IllegalArgumentException If either dimension is even or less than 5.
+     */
+    public EllerGenerator(int numRows, int numCols) throws IllegalArgumentException {
+        this(numRows, numCols, new SplittableRandom());
+    }
+
+    /**
+     * Creates a generator of the maze for a seed.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param seed The seed of the maze.
+     * @throws IllegalArgumentException If either dimension is even or less than 5.
+     */
+    public EllerGenerator(int numRows, int numCols, long seed) throws IllegalArgumentException {
+        this(numRows, numCols, new SplittableRandom(seed));
+    }
+
+    /**
+     * Creates a generator of a maze from a source of randomness.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param random The source of randomness.
+     */
+    private EllerGenerator(int numRows, int numCols, SplittableRandom random)
+            throws IllegalArgumentException {
+        if (numRows < 5 || numRows % 2 != 1 || numCols < 5 || numCols % 2 != 1) {
+            throw new IllegalArgumentException("Invalid dimensions: %s x %s"
+                    .formatted(numRows, numCols));
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.nodesPerRow = (numCols - 1) / 2;
+        this.nodeRows = (numRows - 1) / 2;
+        this.random = random;
+        this.sets = new int[nodesPerRow];
+        this.parents = new int[nodesPerRow];
+        this.relabelled = new int[nodesPerRow];
+        this.goesDown = new boolean[nodesPerRow];
+        this.openRight = new boolean[nodesPerRow];
+        this.openDown = new boolean[nodesPerRow];
+        this.row = new Cell[numCols];
+        for (int node = 0; node < nodesPerRow; node++) {
+            sets[node] = node;
+        }
+    }
+
+    /**
+     * Gets the number of rows in the maze.
+     * @return The number of rows.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Gets the number of columns in the maze.
+     * @return The number of columns.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Gets the position of the start of the maze (the top left node).
+     * @return The start position.
+     */
+    public Position getStart() {
+        return new Position(1, 1);
+    }
+
+    /**
+     * Gets the position of the end of the maze (the bottom right node).
+     * @return The end position.
+     */
+    public Position getEnd() {
+        return new Position(numRows - 2, numCols - 2);
+    }
+
+    /**
+     * Checks if there are rows left to generate.
+     * @return Whether {@link #nextRow()} can be called again.
+     */
+    public boolean hasNextRow() {
+        return nextRow < numRows;
+    }
+
+    /**
+     * Generates the next row of the maze, from top to bottom.
+     * @return The cells of the row. The same array is reused for every row, so it is only
+     *         valid until the next call.
+     * @throws NoSuchElementException If every row has been generated.
+     */
+    public Cell[] nextRow() throws NoSuchElementException {
+        if (!hasNextRow()) {
+            throw new NoSuchElementException();
+        }
+        int rowIndex = nextRow++;
+        Arrays.fill(row, Cell.WALL);
+        if (rowIndex == 0 || rowIndex == numRows - 1) {
+            // Top and bottom edges
+            return row;
+        }
+
+        int nodeRow = (rowIndex - 1) / 2;
+        if (rowIndex % 2 == 1) {
+            joinRow(nodeRow == nodeRows - 1);
+            for (int node = 0; node < nodesPerRow; node++) {
+                row[2 * node + 1] = Cell.PATH;
+                if (openRight[node]) {
+                    row[2 * node + 2] = Cell.PATH;
+                }
+            }
+            if (nodeRow == 0) {
+                row[1] = Cell.START;
+            }
+            if (nodeRow == nodeRows - 1) {
+                row[numCols - 2] = Cell.END;
+            }
+        } else {
+            for (int node = 0; node < nodesPerRow; node++) {
+                if (openDown[node]) {
+                    row[2 * node + 1] = Cell.PATH;
+                }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Decides which walls to open to the right of and below the current row of nodes, then
+     * moves on to the sets of the next row.
+     * @param last Whether this is the last row of nodes, where every set has to be joined.
+     */
+    private void joinRow(boolean last) {
+
+        // Joins neighbouring nodes in different sets at random
+        for (int label = 0; label < parents.length; label++) {
+            parents[label] = label;
+            goesDown[label] = false;
+        }
+        for (int node = 0; node < nodesPerRow - 1; node++) {
+            int left = find(sets[node]);
+            int right = find(sets[node + 1]);
+            openRight[node] = left != right && (last || randomBit());
+            if (openRight[node]) {
+                parents[right] = left;
+            }
+        }
+        openRight[nodesPerRow - 1] = false;
+        if (last) {
+            Arrays.fill(openDown, false);
+            return;
+        }
+
+        // Opens walls down at random, then makes sure every set has at least one (reusing the
+        // relabelling array to find the last node of each set)
+        int[] lastNode = relabelled;
+        for (int node = 0; node < nodesPerRow; node++) {
+            int set = find(sets[node]);
+            sets[node] = set;
+            openDown[node] = randomBit();
+            goesDown[set] |= openDown[node];
+            lastNode[set] = node;
+        }
+        for (int node = 0; node < nodesPerRow; node++) {
+            if (!goesDown[sets[node]] && lastNode[sets[node]] == node) {
+                openDown[node] = true;
+                goesDown[sets[node]] = true;
+            }
+        }
+
+        // Nodes below open walls stay in the same set, and the others start new sets
+        Arrays.fill(relabelled, -1);
+        int numLabels = 0;
+        for (int node = 0; node < nodesPerRow; node++) {
+            if (!openDown[node]) {
+                sets[node] = numLabels++;
+            } else {
+                if (relabelled[sets[node]] < 0) {
+                    relabelled[sets[node]] = numLabels++;
+                }
+                sets[node] = relabelled[sets[node]];
+            }
+        }
+
+    }
+
+    /**
+     * Finds the root label of a set label, halving the path to it on the way.
+     * @param label The label to check.
+     * @return The root label.
+     */
+    private int find(int label) {
+        while (parents[label] != label) {
+            parents[label] = parents[parents[label]];
+            label = parents[label];
+        }
+        return label;
+    }
+
+    /**
+     * Picks a random bit. Only {@link SplittableRandom#nextLong()} is used, so the same seed
+     * always gives the same bits.
+     * @return A random boolean.
+     */
+    private boolean randomBit() {
+        return random.nextLong() < 0;
+    }
+
+}
@@ -0,0 +1,151 @@
+package maze;
+
+import java.util.function.LongConsumer;
+
+import exceptions.MazeUnsolveableException;
+
+/**
+ * A base class for searches that explore the maze grid cell by cell. Searches record the
+ * direction each cell was first reached from in a {@link PackedGrid}, so a route can be
+ * traced back once the search reaches its goal.
+ */
+abstract class GridSearch implements MazeSearch {
+
+    protected final Maze maze;
+    protected final int numCols;
+    private long expanded;
+    private boolean finished;
+    private boolean cancelled;
+    /** The route found, or {@code null} if the end hasn't been reached. */
+    private SolvedPath result;
+
+    /**
+     * Creates a new search.
+     * @param maze The maze to search.
+     */
+    GridSearch(Maze maze) {
+        this.maze = maze;
+        this.numCols = maze.getNumCols();
+    }
+
+    /**
+     * Expands the next cell of the search.
+     * @param onReached Called with the index of each cell first reached, or {@code null}.
+     * @return The route found if this step reached the end, otherwise {@code null}.
+     * @require The frontier isn't empty.
+     */
+    protected abstract SolvedPath expandNext(LongConsumer onReached);
+
+    @Override
+    public boolean advance(int budget, LongConsumer onReached) {
+        for (int i = 0; i < budget && !finished; i++) {
+            if (getFrontierSize() == 0) {
+                finished = true;
+                break;
+            }
+            result = expandNext(onReached);
+            expanded++;
+            finished = result != null;
+        }
+        return finished;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void cancel() {
+        if (!finished) {
+            cancelled = true;
+            finished = true;
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public long getExpanded() {
+        return expanded;
+    }
+
+    @Override
+    public SolvedPath getResult() throws MazeUnsolveableException, IllegalStateException {
+        if (!finished || cancelled) {
+            throw new IllegalStateException("The search hasn't finished");
+        }
+        if (result == null) {
+            throw new MazeUnsolveableException();
+        }
+        return result;
+    }
+
+    /**
+     * Marks a cell as reached and records the direction it was reached from.
+     * @param cell The index of the cell.
+     * @param dir The direction moved in to reach the cell.
+     * @param visited The set of reached cells.
+     * @param cameFrom The direction each reached cell was reached from.
+     * @param onReached Called with the index of the cell, or {@code null}.
+     */
+    static void reach(long cell, Direction dir, CellSet visited, PackedGrid cameFrom,
+                      LongConsumer onReached) {
+        visited.add(cell);
+        cameFrom.set(cell, dir.ordinal());
+        if (onReached != null) {
+            onReached.accept(cell);
+        }
+    }
+
+    /**
+     * Counts the steps from {@code start} to {@code end} by following the recorded directions
+     * back from {@code end}.
+     * @param cameFrom The direction each reached cell was reached from.
+     * @param start The index of the cell the route starts at.
+     * @param end The index of the cell the route ends at.
+     * @return The number of steps from {@code start} to {@code end}.
+     */
+    long countSteps(PackedGrid cameFrom, long start, long end) {
+        long length = 0;
+        for (long cell = end; cell != start; length++) {
+            cell -= Direction.fromOrdinal(cameFrom.get(cell)).indexOffset(numCols);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the steps from {@code start} to {@code end} into a route, by following the recorded
+     * directions back from {@code end}.
+     * @param cameFrom The direction each reached cell was reached from.
+     * @param start The index of the cell the route starts at.
+     * @param end The index of the cell the route ends at.
+     * @param steps The steps of the route.
+     * @param offset The position in {@code steps} to write the first step of the route at.
+     */
+    void writeSteps(PackedGrid cameFrom, long start, long end, PackedGrid steps, long offset) {
+        long i = offset + countSteps(cameFrom, start, end);
+        for (long cell = end; cell != start; i--) {
+            int dir = cameFrom.get(cell);
+            steps.set(i - 1, dir);
+            cell -= Direction.fromOrdinal(dir).indexOffset(numCols);
+        }
+    }
+
+    /**
+     * Builds the route from the start of the maze to the given cell.
+     * @param cameFrom The direction each reached cell was reached from.
+     * @param end The index of the cell the route ends at.
+     * @return The route from the start of the maze to {@code end}.
+     */
+    SolvedPath traceBack(PackedGrid cameFrom, long end) {
+        long start = maze.getStartIndex();
+        PackedGrid steps = new PackedGrid(countSteps(cameFrom, start, end));
+        writeSteps(cameFrom, start, end, steps, 0);
+        return new SolvedPath(start, steps);
+    }
+
+}
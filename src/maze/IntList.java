@@ -0,0 +1,68 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of {@code int}s.
+ */
+class IntList {
+
+    /** The initial capacity of the list. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] items;
+    private int size;
+
+    /**
+     * Creates a new empty list.
+     */
+    IntList() {
+        this.items = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Gets the number of items in the list.
+     * @return The number of items in the list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an item to the end of the list.
+     * @param item The item to add.
+     */
+    void add(int item) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size++] = item;
+    }
+
+    /**
+     * Gets the item at the given position.
+     * @param i The position of the item.
+     * @return The item at that position.
+     */
+    int get(int i) {
+        return items[i];
+    }
+
+    /**
+     * Removes items from the end of the list until it has the given size.
+     * @param newSize The new size of the list.
+     * @require {@code newSize <= size()}
+     */
+    void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Copies the items into an array that is exactly the size of the list.
+     * @return An array of the items in the list.
+     */
+    int[] toArray() {
+        return Arrays.copyOf(items, size);
+    }
+
+}
@@ -0,0 +1,234 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A maze compressed into a weighted graph. The nodes are the cells where a route can branch or
+ * stop (junctions, dead ends, the start and the end), and the edges are the corridors between
+ * them, weighted by their length.
+ * <p>
+ * Each edge also stores the directions taken along its corridor as runs of repeated
+ * directions, so a route through the graph can be expanded back into single-cell moves.
+ * Edges are stored once for each direction they can be travelled in, grouped by the node they
+ * leave from.
+ */
+public class JunctionGraph {
+
+    /** The number of bits used to store the direction of a run. */
+    private static final int RUN_DIR_BITS = 2;
+
+    /** The cell index of each node, in increasing order. */
+    private final long[] nodeCells;
+    /** The position in the edge arrays of the first edge leaving each node (with an extra
+     * entry at the end for the total number of edges). */
+    private final int[] firstEdge;
+    /** The node each edge leads to. */
+    private final int[] edgeTargets;
+    /** The number of cells moved along each edge. */
+    private final int[] edgeLengths;
+    /** The position in {@link #runs} of the first run of each edge (with an extra entry at the
+     * end for the total number of runs). */
+    private final int[] firstRun;
+    /** Runs of repeated directions, each packed as {@code count << 2 | direction ordinal}. */
+    private final int[] runs;
+
+    /**
+     * Builds the junction graph of a maze.
+     * @param maze The maze to compress.
+     */
+    JunctionGraph(Maze maze) {
+        int numCols = maze.getNumCols();
+
+        // Finds every node cell, counting them first so the node array is allocated once
+        int numNodes = 0;
+        for (long cell = 0; cell < maze.getNumCells(); cell++) {
+            if (isNode(maze, cell)) {
+                numNodes++;
+            }
+        }
+        nodeCells = new long[numNodes];
+        int found = 0;
+        for (long cell = 0; found < numNodes; cell++) {
+            if (isNode(maze, cell)) {
+                nodeCells[found++] = cell;
+            }
+        }
+
+        // Follows each corridor leaving each node until it reaches another node
+        firstEdge = new int[nodeCells.length + 1];
+        IntList targets = new IntList();
+        IntList lengths = new IntList();
+        IntList runStarts = new IntList();
+        IntList runList = new IntList();
+        for (int node = 0; node < nodeCells.length; node++) {
+            firstEdge[node] = targets.size();
+            for (Direction firstDir : Direction.ALL_DIRECTIONS) {
+                long cell = nodeCells[node] + firstDir.indexOffset(numCols);
+                if (maze.isWall(cell)) {
+                    continue;
+                }
+                int edgeRunStart = runList.size();
+                Direction dir = firstDir;
+                int runLength = 1;
+                int length = 1;
+                while (!isNode(maze, cell)) {
+                    Direction next = continuation(maze, cell, dir);
+                    if (next == dir) {
+                        runLength++;
+                    } else {
+                        runList.add(runLength << RUN_DIR_BITS | dir.ordinal());
+                        dir = next;
+                        runLength = 1;
+                    }
+                    cell += dir.indexOffset(numCols);
+                    length++;
+                }
+                runList.add(runLength << RUN_DIR_BITS | dir.ordinal());
+                int target = nodeOf(cell);
+                if (target == node) {
+                    // Corridors that loop back to where they started are never on a
+                    // shortest route
+                    runList.truncate(edgeRunStart);
+                    continue;
+                }
+                targets.add(target);
+                lengths.add(length);
+                runStarts.add(edgeRunStart);
+            }
+        }
+        firstEdge[nodeCells.length] = targets.size();
+        runStarts.add(runList.size());
+        edgeTargets = targets.toArray();
+        edgeLengths = lengths.toArray();
+        firstRun = runStarts.toArray();
+        runs = runList.toArray();
+    }
+
+    /**
+     * Checks if a cell is a node of the graph (an open cell that isn't a corridor, or the
+     * start/end of the maze).
+     * @param maze The maze.
+     * @param cell The index of the cell.
+     * @return Whether the cell is a node.
+     */
+    private static boolean isNode(Maze maze, long cell) {
+        Cell type = maze.getCell(cell);
+        if (type == Cell.START || type == Cell.END) {
+            return true;
+        }
+        return type != Cell.WALL && openNeighbours(maze, cell) != 2;
+    }
+
+    /**
+     * Counts the open (non-wall) cells adjacent to a cell.
+     * @param maze The maze.
+     * @param cell The index of the cell.
+     * @return The number of open adjacent cells.
+     */
+    private static int openNeighbours(Maze maze, long cell) {
+        int count = 0;
+        for (Direction dir : Direction.ALL_DIRECTIONS) {
+            if (!maze.isWall(cell + dir.indexOffset(maze.getNumCols()))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the direction a corridor continues in.
+     * @param maze The maze.
+     * @param cell The index of a corridor cell.
+     * @param arrivedBy The direction moved to reach the corridor cell.
+     * @return The direction of the other open cell adjacent to the corridor cell.
+     */
+    private static Direction continuation(Maze maze, long cell, Direction arrivedBy) {
+        for (Direction dir : Direction.ALL_DIRECTIONS) {
+            if (dir != arrivedBy.opposite()
+                    && !maze.isWall(cell + dir.indexOffset(maze.getNumCols()))) {
+                return dir;
+            }
+        }
+        throw new IllegalStateException("Corridor cell has no way onwards");
+    }
+
+    /**
+     * Gets the number of nodes in this graph.
+     * @return The number of nodes.
+     */
+    public int getNumNodes() {
+        return nodeCells.length;
+    }
+
+    /**
+     * Gets the number of edges in this graph (counting each direction an edge can be travelled
+     * in separately).
+     * @return The number of edges.
+     */
+    public int getNumEdges() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * Gets the node at a given cell.
+     * @param cell The index of the cell.
+     * @return The node at that cell, or -1 if the cell isn't a node.
+     */
+    public int nodeOf(long cell) {
+        int node = Arrays.binarySearch(nodeCells, cell);
+        return node >= 0 ? node : -1;
+    }
+
+    /**
+     * Gets the cell index of a node.
+     * @param node The node.
+     * @return The index of the node's cell.
+     */
+    public long cellOf(int node) {
+        return nodeCells[node];
+    }
+
+    /**
+     * Gets the position of the first edge leaving a node (edges leaving a node are numbered
+     * consecutively up to {@code firstEdge(node + 1)}).
+     * @param node The node.
+     * @return The number of the first edge leaving the node.
+     */
+    int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    /**
+     * Gets the node an edge leads to.
+     * @param edge The edge.
+     * @return The node at the far end of the edge.
+     */
+    int targetOf(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Gets the number of cells moved along an edge.
+     * @param edge The edge.
+     * @return The length of the edge.
+     */
+    int lengthOf(int edge) {
+        return edgeLengths[edge];
+    }
+
+    /**
+     * Writes the single-cell moves along an edge into a route.
+     * @param edge The edge.
+     * @param steps The steps of the route.
+     * @param offset The position in {@code steps} to write the first move at.
+     */
+    void writeSteps(int edge, PackedGrid steps, long offset) {
+        for (int run = firstRun[edge]; run < firstRun[edge + 1]; run++) {
+            int dir = runs[run] & ((1 << RUN_DIR_BITS) - 1);
+            for (int i = runs[run] >>> RUN_DIR_BITS; i > 0; i--) {
+                steps.set(offset++, dir);
+            }
+        }
+    }
+
+}
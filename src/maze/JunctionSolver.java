@@ -0,0 +1,143 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import exceptions.MazeUnsolveableException;
+
+/**
+ * A solver that searches the maze's {@link JunctionGraph} rather than its individual cells,
+ * skipping along whole corridors at a time (Dijkstra's algorithm, since corridors have
+ * different lengths). The route found is always a shortest route.
+ */
+public class JunctionSolver implements MazeSolver {
+
+    @Override
+    public MazeSearch start(Maze maze) {
+        return new Search(maze);
+    }
+
+    /**
+     * The state of a search through a junction graph.
+     */
+    private static class Search implements MazeSearch {
+
+        private final JunctionGraph graph;
+        private final int startNode;
+        private final int endNode;
+        /** The length of the shortest route found so far to each node. */
+        private final long[] distances;
+        /** The edge leading into each node on the shortest route found so far. */
+        private final int[] cameBy;
+        /** The node before each node on the shortest route found so far. */
+        private final int[] cameFrom;
+        /** Nodes waiting to be expanded, prioritised by distance. */
+        private final CellHeap open;
+        private long expanded;
+        private boolean endReached;
+        private boolean finished;
+        private boolean cancelled;
+
+        private Search(Maze maze) {
+            this.graph = maze.getJunctionGraph();
+            this.startNode = graph.nodeOf(maze.getStartIndex());
+            this.endNode = graph.nodeOf(maze.getEndIndex());
+            this.distances = new long[graph.getNumNodes()];
+            Arrays.fill(distances, Long.MAX_VALUE);
+            this.cameBy = new int[graph.getNumNodes()];
+            this.cameFrom = new int[graph.getNumNodes()];
+            this.open = new CellHeap();
+            distances[startNode] = 0;
+            open.add(0, 0, startNode);
+        }
+
+        @Override
+        public boolean advance(int budget, LongConsumer onReached) {
+            for (int i = 0; i < budget && !finished; i++) {
+                if (open.isEmpty()) {
+                    finished = true;
+                    break;
+                }
+                open.remove();
+                int node = (int) open.removedCell();
+                long distance = open.removedPriority();
+                if (distance != distances[node]) {
+                    // A shorter route to this node was already expanded
+                    continue;
+                }
+                expanded++;
+                if (onReached != null) {
+                    onReached.accept(graph.cellOf(node));
+                }
+                if (node == endNode) {
+                    endReached = true;
+                    finished = true;
+                    break;
+                }
+                for (int edge = graph.firstEdge(node); edge < graph.firstEdge(node + 1); edge++) {
+                    int target = graph.targetOf(edge);
+                    long newDistance = distance + graph.lengthOf(edge);
+                    if (newDistance < distances[target]) {
+                        distances[target] = newDistance;
+                        cameBy[target] = edge;
+                        cameFrom[target] = node;
+                        open.add(newDistance, 0, target);
+                    }
+                }
+            }
+            return finished;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public void cancel() {
+            if (!finished) {
+                cancelled = true;
+                finished = true;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public long getExpanded() {
+            return expanded;
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return open.size();
+        }
+
+        @Override
+        public SolvedPath getResult() throws MazeUnsolveableException, IllegalStateException {
+            if (!finished || cancelled) {
+                throw new IllegalStateException("The search hasn't finished");
+            }
+            if (!endReached) {
+                throw new MazeUnsolveableException();
+            }
+
+            // Expands each edge on the route back into single-cell moves, last edge first
+            PackedGrid steps = new PackedGrid(distances[endNode]);
+            long offset = distances[endNode];
+            int node = endNode;
+            while (node != startNode) {
+                int edge = cameBy[node];
+                offset -= graph.lengthOf(edge);
+                graph.writeSteps(edge, steps, offset);
+                node = cameFrom[node];
+            }
+            return new SolvedPath(graph.cellOf(startNode), steps);
+        }
+
+    }
+
+}
@@ -1,7 +1,9 @@
 package maze;
 
-import java.util.*;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 import exceptions.MazeUnsolveableException;
 import exceptions.WallInTheWayException;
@@ -11,16 +13,36 @@ import exceptions.WallInTheWayException;
  */
 public class Maze {
 
-    private final Cell[][] cells;
-    private Position userPos;
-    private Position startPos;
+    /** The largest number of cells that hints can be given for (the size of the largest
+     * {@code int[]} of distances that can be allocated). */
+    private static final long MAX_DISTANCE_CELLS = Integer.MAX_VALUE - 8;
+    /** The most changed cells recorded between view updates, beyond which every cell is
+     * treated as changed (e.g. after backtracking along a very long route). */
+    private static final int MAX_CHANGED_CELLS = 1 << 16;
+
+    /** The cell type at each index ({@code row * numCols + col}), stored as its ordinal. */
+    private final PackedGrid cells;
+    /** The index of the user's cell ({@code row * numCols + col}). */
+    private long userIndex;
+    /** The index of the start cell ({@code row * numCols + col}). */
+    private final long startIndex;
+    /** The index of the end cell ({@code row * numCols + col}). */
+    private final long endIndex;
     private final int numRows;
     private final int numCols;
-    /** Positions that the user/autosolver has visited (excludes backtracked positions). */
-    private final ArrayList<Position> visitedPositions;
-    /** Positions that the user/autosolver has visited,
-     * where they ended up going back the way they came. */
-    private final ArrayList<Position> backtrackedPositions;
+    /** The route taken by the user/autosolver, including visited and backtracked positions. */
+    private final PathTracker path;
+    /** The maze compressed into a graph of junctions, built the first time it is needed. */
+    private JunctionGraph junctionGraph;
+    /** The number of steps from each cell to the end (or -1 if the end can't be reached),
+     * computed the first time it is needed. */
+    private int[] distancesToEnd;
+    /** The cells whose appearance may have changed since {@link #drainChangedCells} was last
+     * called (possibly more than once each). */
+    private final CellQueue changedCells = new CellQueue();
+    /** Whether every cell may have changed since {@link #drainChangedCells} was last called, in
+     * which case moves aren't recorded in {@link #changedCells}. */
+    private boolean allChanged;
 
     /**
      * Creates a new maze from a two-dimensional character array.
@@ -29,26 +51,34 @@ public class Maze {
      * (as checked in {@link io.FileLoader}).
      */
     public Maze(char[][] mazeText) {
+        this(builderFor(mazeText));
+    }
 
-        // Setting instance variables
-        numRows = mazeText.length;
-        numCols = mazeText[0].length;
-        visitedPositions = new ArrayList<>();
-        backtrackedPositions = new ArrayList<>();
-
-        // Populates the array of cells and sets the user position
-        cells = new Cell[numRows][numCols];
-        forEachPos(pos -> {
-            Cell cell = Cell.newCell(mazeText[pos.getRow()][pos.getCol()]);
-            cells[pos.getRow()][pos.getCol()] = cell;
-            if (cell.equals(Cell.START)) {
-                startPos = new Position(pos);
-            }
-        });
-
-        // Final setup
+    /**
+     * Creates a new maze from the cells set in a builder (see {@link MazeBuilder#build()}).
+     * @param builder The builder containing the maze's cells.
+     */
+    Maze(MazeBuilder builder) {
+        numRows = builder.numRows;
+        numCols = builder.numCols;
+        cells = builder.cells;
+        startIndex = builder.startIndex;
+        endIndex = builder.endIndex;
+        path = new PathTracker(getNumCells());
         initialise();
+    }
 
+    /**
+     * Copies a two-dimensional character array into a maze builder.
+     * @param mazeText The two-dimensional array of characters.
+     * @return A builder containing the maze's cells.
+     */
+    private static MazeBuilder builderFor(char[][] mazeText) {
+        MazeBuilder builder = new MazeBuilder(mazeText.length, mazeText[0].length);
+        for (int row = 0; row < mazeText.length; row++) {
+            builder.setRow(row, CharBuffer.wrap(mazeText[row]));
+        }
+        return builder;
     }
 
     /**
@@ -57,17 +87,46 @@ public class Maze {
      * @return The newly generated maze.
      */
     public static Maze generate(int size) {
-        return new Maze(MazeGenerator.generate(size));
+        return MazeGenerator.generate(size);
+    }
+
+    /**
+     * Generates a random maze with the given size from a seed. The same size and seed always
+     * give the same maze.
+     * @param size the size of the maze.
+     * @param seed The seed to generate the maze from.
+     * @return The generated maze.
+     */
+    public static Maze generate(int size, long seed) {
+        return MazeGenerator.generate(size, seed);
     }
 
     /**
      * Moves the user back to the start and resets the visited/backtracked positions.
      */
     private void initialise() {
-        visitedPositions.clear();
-        backtrackedPositions.clear();
-        userPos = startPos;
-        visitedPositions.add(startPos);
+        userIndex = startIndex;
+        path.reset(startIndex);
+        changedCells.clear();
+        allChanged = true;
+    }
+
+    /**
+     * Gets the index of a position within this maze ({@code row * numCols + col}).
+     * @param pos The position to convert.
+     * @return The index of the given position.
+     */
+    public long indexOf(Position pos) {
+        return pos.index(numCols);
+    }
+
+    /**
+     * Gets the position at a given index within this maze.
+     * @param index The index to convert.
+     * @return The position at the given index.
+     */
+    public Position positionOf(long index) {
+        return Position.fromIndex(index, numCols);
     }
 
     /**
@@ -76,7 +135,46 @@ public class Maze {
      * @return The cell at the given position.
      */
     public Cell getCell(Position pos) {
-        return pos.select(cells);
+        return getCell(indexOf(pos));
+    }
+
+    /**
+     * Gets the cell at a given index.
+     * @param index The index that the cell is found at ({@code row * numCols + col}).
+     * @return The cell at the given index.
+     */
+    public Cell getCell(long index) {
+        return Cell.fromOrdinal(cells.get(index));
+    }
+
+    /**
+     * Checks if there is a wall at a given index.
+     * @param index The index to check ({@code row * numCols + col}).
+     * @return Whether the cell at the given index is a wall.
+     */
+    public boolean isWall(long index) {
+        return cells.get(index) == Cell.WALL.ordinal();
+    }
+
+    /**
+     * Gets a fast 64-bit hash of this maze's dimensions and cells (ignoring the user's
+     * position and route). Mazes with the same layout always have the same hash.
+     * @return A hash of this maze's contents.
+     */
+    public long getContentHash() {
+        return (cells.hash() * 31 + numRows) * 31 + numCols;
+    }
+
+    /**
+     * Gets this maze compressed into a graph of junctions and the corridors between them. The
+     * graph is built the first time this is called and reused afterwards.
+     * @return The junction graph of this maze.
+     */
+    public JunctionGraph getJunctionGraph() {
+        if (junctionGraph == null) {
+            junctionGraph = new JunctionGraph(this);
+        }
+        return junctionGraph;
     }
 
     /**
@@ -85,7 +183,7 @@ public class Maze {
      * @return Whether the position given is the same as the user position.
      */
     public boolean isUserPos(Position pos) {
-        return userPos.equals(pos);
+        return userIndex == indexOf(pos);
     }
 
     /**
@@ -94,7 +192,7 @@ public class Maze {
      * @return Whether the position given is the same as the start position.
      */
     public boolean isStartPos(Position pos) {
-        return startPos.equals(pos);
+        return startIndex == indexOf(pos);
     }
 
     public int getNumRows() {
@@ -105,13 +203,29 @@ public class Maze {
         return numCols;
     }
 
+    public long getNumCells() {
+        return (long) numRows * numCols;
+    }
+
+    public long getUserIndex() {
+        return userIndex;
+    }
+
+    public long getStartIndex() {
+        return startIndex;
+    }
+
+    public long getEndIndex() {
+        return endIndex;
+    }
+
     /**
      * Checks if the given position has been visited by the user (excluding backtracked routes).
      * @param pos The position to check.
      * @return Whether the user has visited the given position.
      */
     public boolean wasVisited(Position pos) {
-        return visitedPositions.contains(pos);
+        return path.isVisited(indexOf(pos));
     }
 
     /**
@@ -120,7 +234,26 @@ public class Maze {
      * @return Whether the user has backtracked through the given position.
      */
     public boolean wasBacktracked(Position pos) {
-        return backtrackedPositions.contains(pos);
+        return path.isBacktracked(indexOf(pos));
+    }
+
+    /**
+     * Checks if the cell at the given index has been visited by the user (excluding backtracked
+     * routes).
+     * @param index The index to check ({@code row * numCols + col}).
+     * @return Whether the user has visited the cell at the given index.
+     */
+    public boolean wasVisited(long index) {
+        return path.isVisited(index);
+    }
+
+    /**
+     * Checks if the cell at the given index has been backtracked by the user.
+     * @param index The index to check ({@code row * numCols + col}).
+     * @return Whether the user has backtracked through the cell at the given index.
+     */
+    public boolean wasBacktracked(long index) {
+        return path.isBacktracked(index);
     }
 
     /**
@@ -129,26 +262,63 @@ public class Maze {
      * @throws WallInTheWayException When there is a wall blocking the user's movement.
      */
     public void moveIn(Direction dir) throws WallInTheWayException {
-        Position newPos = userPos.movedIn(dir);
-        if (getCell(newPos) == Cell.WALL) {
+        if (!canMove(dir)) {
             throw new WallInTheWayException();
         }
-        if (wasVisited(newPos)) {
-            // If the user has already visited newPos,
-            // all positions visited since then should become backtracked
-            int index = visitedPositions.lastIndexOf(newPos) + 1;
-            List<Position> positionsVisitedSince =
-                    List.copyOf(visitedPositions.subList(index, visitedPositions.size()));
-            // Copying (using List.copyOf) is needed to avoid concurrent modification exceptions
-            visitedPositions.removeAll(positionsVisitedSince);
-            backtrackedPositions.addAll(positionsVisitedSince);
-        } else {
-            if (wasBacktracked(newPos)) {
-                backtrackedPositions.remove(newPos);
+        moveTo(userIndex + dir.indexOffset(numCols));
+    }
+
+    /**
+     * Moves the user to the cell at the given index.
+     * @param index The index of the cell to move to.
+     * @require The cell is adjacent to the user's cell and isn't a wall.
+     */
+    private void moveTo(long index) {
+        if (!allChanged) {
+            recordMove(index);
+        }
+
+        // If the user has already visited this cell,
+        // all cells visited since then become backtracked
+        path.moveTo(index);
+        userIndex = index;
+    }
+
+    /**
+     * Records the cells changed by moving the user to a cell: the cell they left, the cell they
+     * moved to, and any cells that become backtracked.
+     * @param index The index of the cell the user is moving to.
+     */
+    private void recordMove(long index) {
+        changedCells.add(userIndex);
+        changedCells.add(index);
+        if (path.isVisited(index)) {
+            for (int i = path.length() - 1; path.get(i) != index; i--) {
+                changedCells.add(path.get(i));
             }
-            visitedPositions.add(newPos);
         }
-        userPos = newPos;
+        if (changedCells.size() > MAX_CHANGED_CELLS) {
+            changedCells.clear();
+            allChanged = true;
+        }
+    }
+
+    /**
+     * Passes each cell whose appearance may have changed since this was last called (e.g. the
+     * cells changed by each move of the user) to an action, then forgets them. Nothing is
+     * recorded after the maze is created or autosolved, when every cell may have changed.
+     * @param action The action to perform on the index of each changed cell. A cell may be
+     *               passed more than once.
+     * @return Whether the changed cells were recorded, or {@code false} if every cell may have
+     *         changed (the action isn't performed, and the whole maze should be redrawn).
+     */
+    public boolean drainChangedCells(LongConsumer action) {
+        boolean recorded = !allChanged;
+        while (!changedCells.isEmpty()) {
+            action.accept(changedCells.remove());
+        }
+        allChanged = false;
+        return recorded;
     }
 
     /**
@@ -157,7 +327,70 @@ public class Maze {
      * @return Whether the user can move in the given direction.
      */
     public boolean canMove(Direction dir) {
-        return getCell(userPos.movedIn(dir)) != Cell.WALL;
+        return !isWall(userIndex + dir.indexOffset(numCols));
+    }
+
+    /**
+     * Gets the number of steps along the shortest route from the user's position to the end.
+     * @return The distance from the user to the end, or -1 if the end can't be reached.
+     * @throws IllegalStateException When this maze is too large to give hints for.
+     */
+    public int getDistanceToEnd() throws IllegalStateException {
+        return getDistancesToEnd()[(int) userIndex];
+    }
+
+    /**
+     * Gets the direction the user should move in to follow a shortest route to the end.
+     * @return The direction of the next move, or {@code null} if the user is already at the
+     *         end or the end can't be reached.
+     * @throws IllegalStateException When this maze is too large to give hints for.
+     */
+    public Direction getHint() throws IllegalStateException {
+        int[] distances = getDistancesToEnd();
+        int distance = distances[(int) userIndex];
+        if (distance <= 0) {
+            return null;
+        }
+        for (Direction dir : Direction.ALL_DIRECTIONS) {
+            if (distances[(int) userIndex + dir.indexOffset(numCols)] == distance - 1) {
+                return dir;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the distance from every cell to the end, computing it with a single breadth-first
+     * search from the end the first time this is called.
+     * @return The number of steps from each cell to the end (or -1 if the end can't be
+     *         reached from that cell).
+     * @throws IllegalStateException When this maze has too many cells to store a distance for
+     *         each of them.
+     */
+    private int[] getDistancesToEnd() throws IllegalStateException {
+        if (distancesToEnd == null) {
+            if (getNumCells() > MAX_DISTANCE_CELLS) {
+                throw new IllegalStateException(
+                        "Maze too large for hints: %s cells".formatted(getNumCells()));
+            }
+            int[] distances = new int[(int) getNumCells()];
+            Arrays.fill(distances, -1);
+            CellQueue queue = new CellQueue();
+            distances[(int) endIndex] = 0;
+            queue.add(endIndex);
+            while (!queue.isEmpty()) {
+                int cell = (int) queue.remove();
+                for (Direction dir : Direction.ALL_DIRECTIONS) {
+                    int next = cell + dir.indexOffset(numCols);
+                    if (!isWall(next) && distances[next] == -1) {
+                        distances[next] = distances[cell] + 1;
+                        queue.add(next);
+                    }
+                }
+            }
+            distancesToEnd = distances;
+        }
+        return distancesToEnd;
     }
 
     /**
@@ -165,19 +398,20 @@ public class Maze {
      * @return Whether the end of the maze has been reached.
      */
     public boolean endFound() {
-        return getCell(userPos) == Cell.END;
+        return cells.get(userIndex) == Cell.END.ordinal();
     }
 
     public void forEachPos(Consumer<Position> action) {
         for (int row = 0; row < getNumRows(); row++) {
             for (int col = 0; col < getNumCols(); col++) {
-                action.accept(new Position(row, col));
+                action.accept(Position.of(row, col));
             }
         }
     }
 
     /**
-     * Solves the maze programmatically.
+     * Solves the maze programmatically by walking it depth-first, leaving every dead end it
+     * explored marked as backtracked.
      * @throws MazeUnsolveableException When the maze can't be solved programmatically.
      */
     public void autoSolve() throws MazeUnsolveableException {
@@ -188,23 +422,19 @@ public class Maze {
         while (!endFound()) {
 
             // Sees which directions you can go in without going the way you came
-            Direction possibleDirection = null;
+            long nextIndex = -1;
             for (Direction dir : Direction.ALL_DIRECTIONS) {
-                if (canMove(dir) && !wasVisited(userPos.movedIn(dir))
-                        && !wasBacktracked(userPos.movedIn(dir))) {
-                    possibleDirection = dir;
+                long testIndex = userIndex + dir.indexOffset(numCols);
+                if (!isWall(testIndex) && !path.isVisited(testIndex)
+                        && !path.isBacktracked(testIndex)) {
+                    nextIndex = testIndex;
                     break;
                 }
             }
 
             // A suitable direction was found
-            if (possibleDirection != null) {
-                try {
-                    moveIn(possibleDirection);
-                } catch (WallInTheWayException ignored) {
-                    // We have ensured that the user can move in this direction
-                    // so this exception won't be raised
-                }
+            if (nextIndex != -1) {
+                moveTo(nextIndex);
 
             // No suitable direction was found
             } else {
@@ -212,18 +442,12 @@ public class Maze {
                 // If the solver has returned to the start and all adjacent cells have been
                 // backtracked, then the autosolver has gone in every possible direction to no
                 // avail, hence the maze is unsolveable
-                if (userPos.equals(startPos)) {
+                if (userIndex == startIndex) {
                     throw new MazeUnsolveableException();
                 }
 
                 // Retraces its steps (goes back to where it was before)
-                Position lastPos = visitedPositions.get(visitedPositions.size() - 2);
-                try {
-                    moveIn(Direction.directionTo(userPos, lastPos));
-                } catch (WallInTheWayException ignored) {
-                    // We have ensured that the user can move in this direction
-                    // so this exception won't be raised
-                }
+                moveTo(path.get(path.length() - 2));
 
             }
 
@@ -231,4 +455,27 @@ public class Maze {
 
     }
 
+    /**
+     * Solves the maze programmatically using the given solver, moving the user from the start
+     * along the route the solver finds.
+     * @param solver The solver used to find a route.
+     * @throws MazeUnsolveableException When the solver can't find a route to the end.
+     */
+    public void autoSolve(MazeSolver solver) throws MazeUnsolveableException {
+        follow(solver.solve(this));
+    }
+
+    /**
+     * Moves the user back to the start and then along the given route (e.g. the result of a
+     * {@link MazeSearch}).
+     * @param route The route to follow.
+     * @require The route starts at the start of this maze and doesn't pass through walls.
+     */
+    public void follow(SolvedPath route) {
+        initialise();
+        for (long i = 0; i < route.length(); i++) {
+            moveTo(userIndex + route.getStep(i).indexOffset(numCols));
+        }
+    }
+
 }
@@ -0,0 +1,112 @@
+package maze;
+
+/**
+ * Builds a {@link Maze} one cell at a time, straight into the maze's packed grid (so a maze
+ * being loaded is never held in memory twice).
+ */
+public class MazeBuilder {
+
+    /** Each byte with its bits spread 2 bits apart, giving the packed cells of a row of
+     * eight walls (set bits) and paths. */
+    private static final int[] SPREAD_WALLS = new int[256];
+
+    static {
+        for (int walls = 0; walls < 256; walls++) {
+            for (int bit = 0; bit < 8; bit++) {
+                int cell = (walls & (1 << bit)) != 0 ? Cell.WALL.ordinal() : Cell.PATH.ordinal();
+                SPREAD_WALLS[walls] |= cell << (bit * 2);
+            }
+        }
+    }
+
+    // Package-private so that the maze can take over the builder's state
+    final int numRows;
+    final int numCols;
+    /** The cell type at each index ({@code row * numCols + col}), stored as its ordinal. */
+    final PackedGrid cells;
+    /** The index of the start cell, or -1 if it hasn't been set yet. */
+    long startIndex = -1;
+    /** The index of the end cell, or -1 if it hasn't been set yet. */
+    long endIndex = -1;
+
+    /**
+     * Creates a builder for a maze with the given dimensions, where every cell is a path.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @throws IllegalArgumentException When the maze would have too many cells to store.
+     */
+    public MazeBuilder(int numRows, int numCols) throws IllegalArgumentException {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.cells = new PackedGrid((long) numRows * numCols);
+    }
+
+    /**
+     * Sets the cell at a given row and column.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param cell The type of the cell.
+     * @return This builder.
+     */
+    public MazeBuilder setCell(int row, int col, Cell cell) {
+        long index = (long) row * numCols + col;
+        cells.set(index, cell.ordinal());
+        if (cell == Cell.START) {
+            startIndex = index;
+        } else if (cell == Cell.END) {
+            endIndex = index;
+        }
+        return this;
+    }
+
+    /**
+     * Gets the cell set at a given row and column so far.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The type of the cell (a path if it hasn't been set).
+     */
+    public Cell getCell(int row, int col) {
+        return Cell.fromOrdinal(cells.get((long) row * numCols + col));
+    }
+
+    /**
+     * Sets eight consecutive cells at once to walls or paths, from a bitmap of walls (e.g. one
+     * byte of a binary maze file).
+     * @param index The index of the first cell ({@code row * numCols + col}, a multiple of 8).
+     * @param walls The bitmap of walls, with the first cell in the lowest bit. Cells whose bit
+     *              isn't set become paths.
+     * @return This builder.
+     */
+    public MazeBuilder setWalls(long index, int walls) {
+        cells.setEight(index, SPREAD_WALLS[walls & 0xFF]);
+        return this;
+    }
+
+    /**
+     * Sets every cell in a row from maze file characters.
+     * @param row The row to set.
+     * @param text The characters of the row (one for each column).
+     * @return This builder.
+     * @throws IllegalArgumentException When the row contains an invalid maze character.
+     */
+    public MazeBuilder setRow(int row, CharSequence text) throws IllegalArgumentException {
+        for (int col = 0; col < numCols; col++) {
+            setCell(row, col, Cell.newCell(text.charAt(col)));
+        }
+        return this;
+    }
+
+    /**
+     * Creates the maze. The builder shouldn't be used afterwards, since the maze shares its
+     * grid of cells.
+     * @return The new maze.
+     * @throws IllegalStateException When the start or end of the maze hasn't been set.
+     */
+    public Maze build() throws IllegalStateException {
+        if (startIndex < 0 || endIndex < 0) {
+            throw new IllegalStateException("Maze is missing a start and/or end point");
+        }
+        return new Maze(this);
+    }
+
+}
@@ -1,235 +1,184 @@
 package maze;
 
-import java.util.Random;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Arrays;
-import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 /**
  * A helper class for generating random mazes.
+ * <p>
+ * Mazes are generated with a randomised version of Prim's algorithm. The cells at odd rows and
+ * columns (nodes) are joined into a tree that grows from the start: a random wall is taken
+ * from the frontier (the walls between the tree and the nodes next to it), and opened if the
+ * node on its other side isn't in the tree yet. Every wall joins the frontier at most once, so
+ * this takes time proportional to the number of cells, and every node ends up connected to
+ * every other node by exactly one route, so the maze is always solveable.
+ * <p>
+ * Mazes generated from the same seed and size are always the same, on any JVM: the only
+ * randomness used is {@link SplittableRandom#nextLong()}, whose sequence is fixed for a given
+ * seed.
  */
 class MazeGenerator {
 
-    private static final char WALL = '#';
-    private static final char SPACE = ' ';
-    /** The character that forms paths originating from the start of the maze. */
-    private static final char MAIN_CHAR = 'a';
-    /** The character that forms paths originating from wall chunks within the maze. */
-    private static final char FILLER_CHAR = 'b';
-
-    /** The width/height of the inner cells of the maze (excluding the outer walls). */
+    /** The width/height of the maze. */
     private final int size;
-    /** The inner cells of the maze. */
-    private final char[][] cells;
-    private static final Position startPos = new Position(0, 0);
-    private final Position endPos;
-    /** Whether the maze is solveable. Initially this is {@code false} and is set to
-     *  {@code true} once a path is constructed from the start to the end of the maze. */
-    private boolean solveable;
-    private final Random random;
+    /** The number of nodes in each row/column. */
+    private final int nodesPerSide;
+    private final MazeBuilder builder;
+    /** The walls next to the tree, each numbered by the node in the tree times 4 plus the
+     * ordinal of the direction of the wall from it. */
+    private final int[] frontier;
+    private int frontierSize;
+    private final SplittableRandom random;
 
     /**
      * Creates a new MazeGenerator.
      * @param size The width/height of the maze to generate.
+     * @param random The source of randomness.
+     * @throws IllegalArgumentException If the size is even, less than 5, or too large.
      */
-    private MazeGenerator(int size) {
-        this.random = new Random();
-        this.solveable = false;
-        this.size = size - 2;
-        this.endPos = new Position(this.size - 1, this.size - 1);
+    private MazeGenerator(int size, SplittableRandom random) throws IllegalArgumentException {
         if (size < 5 || size % 2 != 1) {
             throw new IllegalArgumentException("Invalid size");
         }
-        this.cells = new char[this.size][this.size];
-        for (int i = 0; i < this.size; i++) {
-            for (int j = 0; j < this.size; j++) {
-                this.cells[i][j] = WALL;
-            }
+        this.size = size;
+        this.nodesPerSide = (size - 1) / 2;
+        long numNodes = (long) nodesPerSide * nodesPerSide;
+        if (4 * numNodes > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Size too large to generate: %s".formatted(size));
         }
+        this.builder = new MazeBuilder(size, size);
+        // Each node has at most 2 walls to the right/below it
+        this.frontier = new int[(int) (2 * numNodes)];
+        this.random = random;
     }
 
     /**
-     * Makes a random path starting at {@code pathStart} and ending when either another path or a
-     * dead end has been reached, without looping back on itself.
-     *
-     * @param pathStart The position to start the path at.
-     * @param pathCell  The character that will be used to represent this path.
+     * Fills the maze with walls.
      */
-    private void make_path(Position pathStart, char pathCell) {
-
-        Position pos = pathStart.clone();
-        setCell(pathStart, pathCell);
-        while (true) {
-
-            // Finds which directions the path can go to next
-            HashMap<Direction, Boolean> possibleDirs = new HashMap<>();
-            for (Direction testDir : Direction.ALL_DIRECTIONS) {
-                Position testPos = pos.movedIn(testDir).movedIn(testDir);
-                char testCell = getCell(testPos);
-                boolean end = (testCell == MAIN_CHAR || testCell == FILLER_CHAR)
-                        && testCell != pathCell;
-                if (testCell == WALL || end) {
-                    possibleDirs.put(testDir, end);
-                }
-            }
-
-            if (!possibleDirs.isEmpty()) {
-
-                // Path continues in one of the possible directions
-                int index = random.nextInt(possibleDirs.size());
-                Map.Entry<Direction, Boolean> entry =
-                        possibleDirs.entrySet().stream().toList().get(index);
-                Direction chosenDir = entry.getKey();
-                boolean end = entry.getValue();
-                Position trackedPos = null;
-                for (int i = 0; i < 2; i++) {
-                    // Continues the path two cells in the given direction and puts the
-                    // appropriate characters there
-                    if (i == 0) {
-                        trackedPos = pos.movedIn(chosenDir);
-                    } else {
-                        trackedPos = pos.movedIn(chosenDir).movedIn(chosenDir);
-                    }
-                    setCell(trackedPos, pathCell);
-                }
-                if (trackedPos.equals(endPos)) {
-                    solveable = true;
-                }
-                if (end) {
-                    // This path has reached another previously formed path so it should end
-                    return;
-                }
-                pos = trackedPos;
-
-            } else {
-                return;
-            }
-
+    private void fillWalls() {
+        long numCells = (long) size * size;
+        for (long index = 0; index < numCells; index += 8) {
+            // Leaves the padding after the last cell clear
+            builder.setWalls(index, 0xFF >>> Math.max(0, 8 - (numCells - index)));
         }
     }
 
     /**
-     * Populates the inner cells of the maze with random paths.
+     * Grows a tree of paths from the top left node until it reaches every node.
      */
-    private void populate() {
-
-        setCell(startPos, MAIN_CHAR);
-
-        // Routes from start
-        while (!solveable) {
-            Position[] starts = getNodesOfCell(MAIN_CHAR);
-            for (Position chosenNode : starts) {
-                make_path(chosenNode, MAIN_CHAR);
-                if (solveable) {
-                    break;
-                }
+    private void connectNodes() {
+        addNode(0);
+        while (frontierSize > 0) {
+            int index = nextIndex(frontierSize);
+            int wall = frontier[index];
+            frontier[index] = frontier[--frontierSize];
+
+            Direction dir = Direction.fromOrdinal(wall & 3);
+            int row = rowOf(wall >>> 2) + dir.getRowChange();
+            int col = colOf(wall >>> 2) + dir.getColChange();
+            int next = neighbour(wall >>> 2, dir);
+            if (builder.getCell(rowOf(next), colOf(next)) == Cell.WALL) {
+                builder.setCell(row, col, Cell.PATH);
+                addNode(next);
             }
         }
+    }
 
-        // Removing wall chunks
-        Position[] walls = getNodesOfCell(WALL);
-        while (walls.length != 0) {
-            int index = random.nextInt(walls.length);
-            this.make_path(walls[index], FILLER_CHAR);
-            walls = getNodesOfCell(WALL);
-        }
+    /**
+     * Picks a random index. This maps the top 32 bits of a random {@code long} onto the range
+     * (rather than using {@link SplittableRandom#nextInt(int)}, whose algorithm isn't part of
+     * its specification), so the same seed always gives the same indices.
+     * @param bound The number of indices to pick from.
+     * @return A random index from 0 (inclusive) to {@code bound} (exclusive).
+     */
+    private int nextIndex(int bound) {
+        return (int) (((random.nextLong() >>> 32) * bound) >>> 32);
+    }
 
-        // Replaces the path characters with spaces
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                Position pos = new Position(i, j);
-                if (getCell(pos) == MAIN_CHAR || getCell(pos) == FILLER_CHAR) {
-                    setCell(pos, SPACE);
-                }
+    /**
+     * Adds a node to the tree, and adds its walls to nodes outside the tree to the frontier.
+     * @param node The node to add.
+     */
+    private void addNode(int node) {
+        builder.setCell(rowOf(node), colOf(node), Cell.PATH);
+        for (Direction dir : Direction.ALL_DIRECTIONS) {
+            int next = neighbour(node, dir);
+            if (next >= 0 && builder.getCell(rowOf(next), colOf(next)) == Cell.WALL) {
+                frontier[frontierSize++] = node << 2 | dir.ordinal();
             }
         }
-
-        setCell(startPos, 'S');
-        setCell(endPos, 'E');
-
     }
 
     /**
-     * Gets the nodes of this maze (all even-valued coordinates within the inner cells).
-     * @return The nodes of this maze (all even-valued coordinates within the inner cells).
+     * Gets the node next to a node in a given direction.
+     * @param node The node.
+     * @param dir The direction of the other node.
+     * @return The neighbouring node, or -1 if there isn't one in that direction.
      */
-    private Position[] getNodes() {
-        ArrayList<Position> nodes = new ArrayList<>();
-        int max = (size + 1) / 2;
-        for (int i = 0; i < max; i++) {
-            for (int j = 0; j < max; j++) {
-                nodes.add(new Position(i * 2, j * 2));
-            }
+    private int neighbour(int node, Direction dir) {
+        int nodeRow = node / nodesPerSide + dir.getRowChange();
+        int nodeCol = node % nodesPerSide + dir.getColChange();
+        if (nodeRow < 0 || nodeRow >= nodesPerSide || nodeCol < 0 || nodeCol >= nodesPerSide) {
+            return -1;
         }
-        return nodes.toArray(new Position[0]);
+        return nodeRow * nodesPerSide + nodeCol;
     }
 
     /**
-     * Gets all nodes that contain the given cell.
-     * @param cell The cell to check for.
-     * @return All nodes that contain the given cell.
+     * Gets the row of a node.
+     * @param node The node.
+     * @return The row of the node within the maze.
      */
-    private Position[] getNodesOfCell(char cell) {
-        return Arrays.stream(getNodes()).filter(node -> (getCell(node) == cell))
-                .toList().toArray(new Position[0]);
+    private int rowOf(int node) {
+        return 2 * (node / nodesPerSide) + 1;
     }
 
     /**
-     * Changes one of the inner cells at a given position.
-     * @param pos The position where the cells should be edited.
-     * @param newChar The new cell character.
+     * Gets the column of a node.
+     * @param node The node.
+     * @return The column of the node within the maze.
      */
-    private void setCell(Position pos, char newChar) {
-        cells[pos.getRow()][pos.getCol()] = newChar;
+    private int colOf(int node) {
+        return 2 * (node % nodesPerSide) + 1;
     }
 
     /**
-     * Gets the cell at a given position.
-     * @param pos The position to check.
-     * @return The cell at the given position or {@code '!'} if the position is out of the bounds
-     * of the maze.
+     * Generates a random maze with the given size, starting at the top left and ending at the
+     * bottom right.
+     *
+     * @param size the size of the maze.
+     * @return The newly generated maze.
+     * @throws IllegalArgumentException If the size is even, less than 5, or too large.
      */
-    private char getCell(Position pos) {
-        int[] coords = {pos.getRow(), pos.getCol()};
-        for (int coord : coords) {
-            if (coord < 0 || coord >= cells.length) {
-                return '!';
-            }
-        }
-        return cells[pos.getRow()][pos.getCol()];
+    public static Maze generate(int size) throws IllegalArgumentException {
+        return generate(size, new SplittableRandom());
     }
 
     /**
-     * Surrounds the maze with walls ({@code '#'}) and returns the result.
-     * @return The maze surrounded by walls.
+     * Generates the maze with the given size for a seed, starting at the top left and ending at
+     * the bottom right.
+     *
+     * @param size the size of the maze.
+     * @param seed The seed of the maze.
+     * @return The generated maze, which is the same for every call with this size and seed.
+     * @throws IllegalArgumentException If the size is even, less than 5, or too large.
      */
-    private char[][] surround() {
-        char[][] finalCells = new char[size + 2][size + 2];
-        for (int i = 0; i < size + 2; i++) {
-            for (int j = 0; j < size + 2; j++) {
-                char cell;
-                if (i == 0 || i == size + 1 || j == 0 || j == size + 1) {
-                    cell = WALL;
-                } else {
-                    cell = cells[i - 1][j - 1];
-                }
-                finalCells[i][j] = cell;
-            }
-        }
-        return finalCells;
+    public static Maze generate(int size, long seed) throws IllegalArgumentException {
+        return generate(size, new SplittableRandom(seed));
     }
 
     /**
-     * Generates a random maze with the given size.
-     *
+     * Generates a maze with the given size from a source of randomness.
      * @param size the size of the maze.
-     * @return The 2D array of characters for the newly generated maze.
+     * @param random The source of randomness.
+     * @return The newly generated maze.
      */
-    public static char[][] generate(int size) {
-        MazeGenerator k = new MazeGenerator(size);
-        k.populate();
-        return k.surround();
+    private static Maze generate(int size, SplittableRandom random) {
+        MazeGenerator generator = new MazeGenerator(size, random);
+        generator.fillWalls();
+        generator.connectNodes();
+        generator.builder.setCell(1, 1, Cell.START);
+        generator.builder.setCell(size - 2, size - 2, Cell.END);
+        return generator.builder.build();
     }
 
 }
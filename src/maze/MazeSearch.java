@@ -0,0 +1,60 @@
+package maze;
+
+import java.util.function.LongConsumer;
+
+import exceptions.MazeUnsolveableException;
+
+/**
+ * A search for a route through a maze that runs a limited number of steps at a time, so it can
+ * be animated, paused between calls or cancelled part way through.
+ */
+public interface MazeSearch {
+
+    /**
+     * Runs the search for at most the given number of steps (each step expands one cell).
+     * @param budget The maximum number of cells to expand.
+     * @param onReached Called with the index of each cell first reached during these steps, or
+     *                  {@code null} if the caller doesn't need them.
+     * @return Whether the search has finished (found the end, run out of cells or been
+     *         cancelled).
+     */
+    boolean advance(int budget, LongConsumer onReached);
+
+    /**
+     * Checks if the search has finished (found the end, run out of cells or been cancelled).
+     * @return Whether the search has finished.
+     */
+    boolean isFinished();
+
+    /**
+     * Stops the search. Any later calls to {@link #advance(int, LongConsumer)} do nothing.
+     */
+    void cancel();
+
+    /**
+     * Checks if the search was cancelled before it finished.
+     * @return Whether the search was cancelled.
+     */
+    boolean isCancelled();
+
+    /**
+     * Gets the number of cells expanded so far.
+     * @return The number of cells expanded so far.
+     */
+    long getExpanded();
+
+    /**
+     * Gets the number of cells currently waiting to be expanded.
+     * @return The size of the frontier.
+     */
+    int getFrontierSize();
+
+    /**
+     * Gets the route found by the search.
+     * @return The route from the start of the maze to the end.
+     * @throws MazeUnsolveableException When the search finished without reaching the end.
+     * @throws IllegalStateException When the search hasn't finished or was cancelled.
+     */
+    SolvedPath getResult() throws MazeUnsolveableException, IllegalStateException;
+
+}
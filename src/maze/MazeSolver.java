@@ -0,0 +1,53 @@
+package maze;
+
+import exceptions.MazeUnsolveableException;
+
+/**
+ * A strategy for finding a route from the start of a maze to its end.
+ */
+public interface MazeSolver {
+
+    /**
+     * Starts a search for a route from the start of a maze to its end, without running any
+     * steps of it yet. The maze itself isn't modified.
+     * @param maze The maze to solve.
+     * @return The search, which can be run a limited number of steps at a time.
+     */
+    MazeSearch start(Maze maze);
+
+    /**
+     * Finds a route from the start of a maze to its end by running a search to completion.
+     * The maze itself isn't modified.
+     * @param maze The maze to solve.
+     * @return The route found from the start to the end.
+     * @throws MazeUnsolveableException When there is no route from the start to the end.
+     */
+    default SolvedPath solve(Maze maze) throws MazeUnsolveableException {
+        MazeSearch search = start(maze);
+        boolean finished;
+        do {
+            finished = search.advance(Integer.MAX_VALUE, null);
+        } while (!finished);
+        return search.getResult();
+    }
+
+    /**
+     * Gets the solver with the given name.
+     * @param name The name of the solver ({@code bfs}, {@code astar}, {@code bidirectional},
+     *             {@code parallel} or {@code junction}), ignoring case.
+     * @return A new solver with the given name.
+     * @throws IllegalArgumentException When there is no solver with the given name.
+     */
+    static MazeSolver named(String name) throws IllegalArgumentException {
+        return switch (name.toLowerCase()) {
+            case "bfs" -> new BreadthFirstSolver();
+            case "astar" -> new AStarSolver();
+            case "bidirectional" -> new BidirectionalSolver();
+            case "parallel" -> new ParallelBreadthFirstSolver();
+            case "junction" -> new JunctionSolver();
+            default -> throw new IllegalArgumentException(
+                    "Unknown solver: %s".formatted(name));
+        };
+    }
+
+}
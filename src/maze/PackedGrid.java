@@ -0,0 +1,98 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size grid of 2-bit values packed 32 to a {@code long}.
+ * <p>
+ * Values are addressed by a {@code long} cell index ({@code row * numCols + col}), so a maze
+ * of {@code n} cells only needs {@code n / 4} bytes, and can have more than
+ * {@link Integer#MAX_VALUE} cells. Two bits is enough for every {@link Cell} type, and
+ * for the states kept by {@link PathTracker}.
+ */
+class PackedGrid {
+
+    /** The number of bits used by each value. */
+    private static final int BITS = 2;
+    /** The mask selecting a single value. */
+    private static final long MASK = (1L << BITS) - 1;
+    /** log2 of the number of values stored in each {@code long}. */
+    private static final int SHIFT = 5;
+
+    private final long[] words;
+    private final long size;
+
+    /**
+     * Creates a new grid with every value set to 0.
+     * @param size The number of values in the grid.
+     * @throws IllegalArgumentException When the grid would be too large to store in an array.
+     */
+    PackedGrid(long size) throws IllegalArgumentException {
+        long numWords = (size + (1 << SHIFT) - 1) >>> SHIFT;
+        if (size < 0 || numWords > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid too large: %s cells".formatted(size));
+        }
+        this.size = size;
+        this.words = new long[(int) numWords];
+    }
+
+    /**
+     * Gets the number of values in this grid.
+     * @return The number of values in this grid.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Gets the value at the given index.
+     * @param index The index of the value.
+     * @return The value at that index (between 0 and 3 inclusive).
+     */
+    int get(long index) {
+        return (int) ((words[(int) (index >>> SHIFT)] >>> ((index & 31) * BITS)) & MASK);
+    }
+
+    /**
+     * Sets the value at the given index.
+     * @param index The index of the value.
+     * @param value The new value (between 0 and 3 inclusive).
+     */
+    void set(long index, int value) {
+        int shift = (int) (index & 31) * BITS;
+        int word = (int) (index >>> SHIFT);
+        words[word] = (words[word] & ~(MASK << shift)) | ((value & MASK) << shift);
+    }
+
+    /**
+     * Sets eight consecutive values at once.
+     * @param index The index of the first value (a multiple of 8).
+     * @param values The eight values, packed 2 bits each with the first value lowest.
+     */
+    void setEight(long index, int values) {
+        int shift = (int) (index & 31) * BITS;
+        int word = (int) (index >>> SHIFT);
+        words[word] = (words[word] & ~(0xFFFFL << shift)) | ((values & 0xFFFFL) << shift);
+    }
+
+    /**
+     * Computes a fast 64-bit hash of every value in the grid.
+     * @return A hash of the grid's contents.
+     */
+    long hash() {
+        long hash = size;
+        for (long word : words) {
+            hash = (hash ^ word) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+        }
+        return hash;
+    }
+
+    /**
+     * Sets every value in the grid to 0.
+     */
+    void clear() {
+        Arrays.fill(words, 0);
+    }
+
+}
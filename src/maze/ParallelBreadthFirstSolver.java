@@ -0,0 +1,287 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+import exceptions.MazeUnsolveableException;
+
+/**
+ * A breadth-first solver that expands each layer of the search in parallel on a
+ * {@link ForkJoinPool}. The frontier is split into chunks, and cells are claimed through a
+ * shared atomic bitset so each cell is reached by exactly one worker. Each chunk writes the
+ * cells it reaches into its own buffer, and the buffers are appended to the next layer once
+ * per step. Since layers are expanded whole, the route found is always a shortest route.
+ */
+public class ParallelBreadthFirstSolver implements MazeSolver {
+
+    /** The number of frontier cells expanded by each chunk. */
+    private static final int CHUNK_SIZE = 1024;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new parallel solver that runs on the common fork/join pool.
+     */
+    public ParallelBreadthFirstSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new parallel solver that runs on the given pool.
+     * @param pool The pool that layers are expanded on.
+     */
+    public ParallelBreadthFirstSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public MazeSearch start(Maze maze) {
+        return new Search(maze);
+    }
+
+    /**
+     * The state of a parallel breadth-first search.
+     */
+    private class Search implements MazeSearch {
+
+        private final Maze maze;
+        private final int numCols;
+        /** One bit per cell, set once the cell has been reached. */
+        private final AtomicLongArray visited;
+        /** The direction each reached cell was reached from, packed 32 cells to a
+         * {@code long}. */
+        private final AtomicLongArray cameFrom;
+        /** The layer being expanded. */
+        private long[] frontier;
+        /** The number of cells of {@link #frontier} already expanded. */
+        private int frontierPos;
+        /** The cells reached so far while expanding the current layer. */
+        private long[] nextFrontier;
+        private int nextSize;
+        /** The cells reached by each chunk of the current step, reused between steps. */
+        private long[][] chunkReached = new long[0][];
+        /** The number of cells reached by each chunk of the current step. */
+        private int[] chunkCounts = new int[0];
+        private long expanded;
+        private boolean endReached;
+        private boolean finished;
+        private boolean cancelled;
+
+        private Search(Maze maze) {
+            this.maze = maze;
+            this.numCols = maze.getNumCols();
+            this.visited = new AtomicLongArray((int) ((maze.getNumCells() + 63) >>> 6));
+            this.cameFrom = new AtomicLongArray((int) ((maze.getNumCells() + 31) >>> 5));
+            this.frontier = new long[]{maze.getStartIndex()};
+            this.nextFrontier = new long[0];
+            claim(maze.getStartIndex());
+        }
+
+        /**
+         * Atomically marks a cell as reached. Cells already reached are skipped with a plain
+         * read, so only cells that look unreached need an atomic update.
+         * @param cell The index of the cell.
+         * @return Whether this call reached the cell first.
+         */
+        private boolean claim(long cell) {
+            int word = (int) (cell >>> 6);
+            long bit = 1L << (cell & 63);
+            if ((visited.get(word) & bit) != 0) {
+                return false;
+            }
+            return (visited.getAndAccumulate(word, bit, (a, b) -> a | b) & bit) == 0;
+        }
+
+        /**
+         * Atomically records the direction a cell was reached from.
+         * @param cell The index of the cell.
+         * @param dir The direction moved to reach the cell.
+         */
+        private void setCameFrom(long cell, Direction dir) {
+            long bits = (long) dir.ordinal() << ((cell & 31) * 2);
+            cameFrom.getAndAccumulate((int) (cell >>> 5), bits, (a, b) -> a | b);
+        }
+
+        /**
+         * Gets the direction a cell was reached from.
+         * @param cell The index of the cell.
+         * @return The direction moved to reach the cell.
+         */
+        private Direction getCameFrom(long cell) {
+            long word = cameFrom.get((int) (cell >>> 5));
+            return Direction.fromOrdinal((int) (word >>> ((cell & 31) * 2)) & 3);
+        }
+
+        @Override
+        public boolean advance(int budget, LongConsumer onReached) {
+            while (budget > 0 && !finished) {
+                if (frontierPos == frontier.length) {
+                    // Moves on to the next layer
+                    if (nextSize == 0) {
+                        finished = true;
+                        break;
+                    }
+                    frontier = Arrays.copyOf(nextFrontier, nextSize);
+                    frontierPos = 0;
+                    nextSize = 0;
+                }
+                int count = Math.min(budget, frontier.length - frontierPos);
+                int numChunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                if (numChunks > chunkReached.length) {
+                    int oldLength = chunkReached.length;
+                    chunkReached = Arrays.copyOf(chunkReached, numChunks);
+                    chunkCounts = new int[numChunks];
+                    int chunkCapacity = CHUNK_SIZE * Direction.ALL_DIRECTIONS.length;
+                    for (int chunk = oldLength; chunk < numChunks; chunk++) {
+                        chunkReached[chunk] = new long[chunkCapacity];
+                    }
+                }
+                pool.invoke(new Expand(frontierPos, frontierPos + count, 0, numChunks));
+                frontierPos += count;
+                budget -= count;
+                expanded += count;
+
+                // Appends every chunk's newly reached cells to the next layer at once
+                int numReached = 0;
+                for (int chunk = 0; chunk < numChunks; chunk++) {
+                    numReached += chunkCounts[chunk];
+                }
+                if (nextSize + numReached > nextFrontier.length) {
+                    nextFrontier = Arrays.copyOf(nextFrontier,
+                            Math.max(nextFrontier.length * 2, nextSize + numReached));
+                }
+                int firstReached = nextSize;
+                for (int chunk = 0; chunk < numChunks; chunk++) {
+                    System.arraycopy(chunkReached[chunk], 0, nextFrontier, nextSize,
+                            chunkCounts[chunk]);
+                    nextSize += chunkCounts[chunk];
+                }
+                for (int i = firstReached; i < nextSize; i++) {
+                    if (nextFrontier[i] == maze.getEndIndex()) {
+                        endReached = true;
+                    }
+                    if (onReached != null) {
+                        onReached.accept(nextFrontier[i]);
+                    }
+                }
+                finished = endReached;
+            }
+            return finished;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public void cancel() {
+            if (!finished) {
+                cancelled = true;
+                finished = true;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public long getExpanded() {
+            return expanded;
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return frontier.length - frontierPos + nextSize;
+        }
+
+        @Override
+        public SolvedPath getResult() throws MazeUnsolveableException, IllegalStateException {
+            if (!finished || cancelled) {
+                throw new IllegalStateException("The search hasn't finished");
+            }
+            if (!endReached) {
+                throw new MazeUnsolveableException();
+            }
+            long start = maze.getStartIndex();
+            long length = 0;
+            for (long cell = maze.getEndIndex(); cell != start; length++) {
+                cell -= getCameFrom(cell).indexOffset(numCols);
+            }
+            PackedGrid steps = new PackedGrid(length);
+            long i = length;
+            for (long cell = maze.getEndIndex(); cell != start; i--) {
+                Direction dir = getCameFrom(cell);
+                steps.set(i - 1, dir.ordinal());
+                cell -= dir.indexOffset(numCols);
+            }
+            return new SolvedPath(start, steps);
+        }
+
+        /**
+         * A task that expands a range of chunks of the current layer, splitting the range in
+         * half until it is a single chunk. Each chunk writes the cells it reaches into its own
+         * buffer, so nothing is copied until the step's chunks are appended to the next layer.
+         */
+        private class Expand extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            /** The position in the frontier of the first cell of the step. */
+            private final int stepFrom;
+            /** The position in the frontier after the last cell of the step. */
+            private final int stepTo;
+            private final int firstChunk;
+            private final int lastChunk;
+
+            /**
+             * Creates a new task.
+             * @param stepFrom The position in the frontier of the first cell of the step.
+             * @param stepTo The position in the frontier after the last cell of the step.
+             * @param firstChunk The first chunk of the step to expand.
+             * @param lastChunk The chunk after the last chunk to expand.
+             */
+            private Expand(int stepFrom, int stepTo, int firstChunk, int lastChunk) {
+                this.stepFrom = stepFrom;
+                this.stepTo = stepTo;
+                this.firstChunk = firstChunk;
+                this.lastChunk = lastChunk;
+            }
+
+            /**
+             * Expands the chunks, each into its own buffer.
+             */
+            @Override
+            protected void compute() {
+                if (lastChunk - firstChunk > 1) {
+                    int mid = (firstChunk + lastChunk) >>> 1;
+                    invokeAll(new Expand(stepFrom, stepTo, firstChunk, mid),
+                            new Expand(stepFrom, stepTo, mid, lastChunk));
+                    return;
+                }
+                long[] reached = chunkReached[firstChunk];
+                int count = 0;
+                int to = Math.min(stepTo, stepFrom + (firstChunk + 1) * CHUNK_SIZE);
+                for (int i = stepFrom + firstChunk * CHUNK_SIZE; i < to; i++) {
+                    long cell = frontier[i];
+                    for (Direction dir : Direction.ALL_DIRECTIONS) {
+                        long next = cell + dir.indexOffset(numCols);
+                        if (!maze.isWall(next) && claim(next)) {
+                            setCameFrom(next, dir);
+                            reached[count++] = next;
+                        }
+                    }
+                }
+                chunkCounts[firstChunk] = count;
+            }
+
+        }
+
+    }
+
+}
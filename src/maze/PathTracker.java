@@ -0,0 +1,206 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the route taken through a maze by the user/autosolver.
+ * <p>
+ * Each cell (identified by its index {@code row * numCols + col}) has a state recording whether
+ * it is on the current route (visited) or was abandoned (backtracked). The route itself is kept
+ * as a stack of cell indices, along with a lookup from cell index to position on the route, so
+ * every query is constant time and every move costs time proportional to the number of cells
+ * it changes.
+ */
+class PathTracker {
+
+    /** The state of a cell that hasn't been visited. */
+    private static final int UNVISITED = 0;
+    /** The state of a cell on the current route. */
+    private static final int VISITED = 1;
+    /** The state of a cell that was visited and then abandoned. */
+    private static final int BACKTRACKED = 2;
+
+    /** The initial capacity of the route and lookup table. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The state of each cell. */
+    private final PackedGrid states;
+    /** The cell indices on the current route, in the order they were visited. */
+    private long[] route;
+    /** The number of cells on the current route. */
+    private int length;
+    /** Open-addressing table of cell indices (offset by one so that zero means empty). */
+    private long[] keys;
+    /** The position on the route of the cell with the matching entry in {@link #keys}. */
+    private int[] values;
+
+    /**
+     * Creates a new path tracker.
+     * @param numCells The number of cells in the maze.
+     */
+    PathTracker(long numCells) {
+        this.states = new PackedGrid(numCells);
+        this.route = new long[INITIAL_CAPACITY];
+        this.keys = new long[INITIAL_CAPACITY * 2];
+        this.values = new int[INITIAL_CAPACITY * 2];
+    }
+
+    /**
+     * Clears all visited/backtracked cells and starts a new route at the given cell.
+     * @param start The index of the cell the route starts at.
+     */
+    void reset(long start) {
+        states.clear();
+        Arrays.fill(keys, 0);
+        length = 0;
+        push(start);
+    }
+
+    /**
+     * Checks if the given cell is on the current route.
+     * @param cell The index of the cell to check.
+     * @return Whether the cell has been visited (excluding backtracked cells).
+     */
+    boolean isVisited(long cell) {
+        return states.get(cell) == VISITED;
+    }
+
+    /**
+     * Checks if the given cell was visited and then abandoned.
+     * @param cell The index of the cell to check.
+     * @return Whether the cell has been backtracked.
+     */
+    boolean isBacktracked(long cell) {
+        return states.get(cell) == BACKTRACKED;
+    }
+
+    /**
+     * Gets the number of cells on the current route.
+     * @return The number of cells on the current route.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Gets the cell at the given position on the current route.
+     * @param i The position on the route (0 is the start of the route).
+     * @return The index of the cell at that position.
+     */
+    long get(int i) {
+        return route[i];
+    }
+
+    /**
+     * Extends the route to the given cell. If the cell is already on the route, every cell
+     * visited since then becomes backtracked instead.
+     * @param cell The index of the cell that was moved to.
+     */
+    void moveTo(long cell) {
+        if (states.get(cell) == VISITED) {
+            int index = lookup(cell);
+            for (int i = index + 1; i < length; i++) {
+                states.set(route[i], BACKTRACKED);
+                remove(route[i]);
+            }
+            length = index + 1;
+        } else {
+            push(cell);
+        }
+    }
+
+    /**
+     * Adds a cell to the end of the route.
+     * @param cell The index of the cell to add.
+     */
+    private void push(long cell) {
+        if (length == route.length) {
+            route = Arrays.copyOf(route, length * 2);
+        }
+        states.set(cell, VISITED);
+        route[length] = cell;
+        put(cell, length);
+        length++;
+    }
+
+    /**
+     * Gets the slot in the lookup table where the given cell is (or would be) stored.
+     * @param cell The index of the cell.
+     * @return The slot for that cell.
+     */
+    private int slotOf(long cell) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(cell, mask);
+        while (keys[slot] != 0 && keys[slot] != cell + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Gets the position of a visited cell on the route.
+     * @param cell The index of the cell.
+     * @return The position of the cell on the route.
+     */
+    private int lookup(long cell) {
+        return values[slotOf(cell)];
+    }
+
+    /**
+     * Records the position of a cell on the route, growing the lookup table if it becomes more
+     * than half full.
+     * @param cell The index of the cell.
+     * @param index The position of the cell on the route.
+     */
+    private void put(long cell, int index) {
+        if (length * 2 >= keys.length) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slotOf(oldKeys[i] - 1);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+        int slot = slotOf(cell);
+        keys[slot] = cell + 1;
+        values[slot] = index;
+    }
+
+    /**
+     * Removes a cell from the lookup table, shifting back any entries that probed past it.
+     * @param cell The index of the cell.
+     */
+    private void remove(long cell) {
+        int mask = keys.length - 1;
+        int slot = slotOf(cell);
+        keys[slot] = 0;
+        int next = (slot + 1) & mask;
+        while (keys[next] != 0) {
+            int home = homeSlot(keys[next] - 1, mask);
+            // Moves the entry into the gap if the gap lies between its home slot and itself
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                keys[next] = 0;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Gets the slot in the lookup table that a cell's entry would ideally be stored at.
+     * @param cell The index of the cell.
+     * @param mask The size of the lookup table minus one.
+     * @return The ideal slot for that cell.
+     */
+    private static int homeSlot(long cell, int mask) {
+        return (int) ((cell * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+}
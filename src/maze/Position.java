@@ -1,12 +1,23 @@
 package maze;
 
 /**
- * A position in a maze specified by row/column numbers.
+ * A position in a maze specified by row/column numbers. Positions are immutable.
  */
-public class Position implements Cloneable {
+public final class Position {
 
-    private int row;
-    private int col;
+    /** The number of rows/columns (starting from 0) with a shared cached position. */
+    private static final int CACHE_SIZE = 64;
+    /** Cached positions for small coordinates, indexed by {@code row * CACHE_SIZE + col}. */
+    private static final Position[] CACHE = new Position[CACHE_SIZE * CACHE_SIZE];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Position(i / CACHE_SIZE, i % CACHE_SIZE);
+        }
+    }
+
+    private final int row;
+    private final int col;
 
     public Position(int row, int col) {
         this.row = row;
@@ -22,6 +33,39 @@ public class Position implements Cloneable {
         this.col = pos.col;
     }
 
+    /**
+     * Gets a position with the given row and column, reusing a shared instance where possible
+     * instead of allocating a new one.
+     * @param row The row of the position.
+     * @param col The column of the position.
+     * @return A position with the given row and column.
+     */
+    public static Position of(int row, int col) {
+        if (row >= 0 && row < CACHE_SIZE && col >= 0 && col < CACHE_SIZE) {
+            return CACHE[row * CACHE_SIZE + col];
+        }
+        return new Position(row, col);
+    }
+
+    /**
+     * Gets the position encoded in a packed {@code long} (see {@link #pack()}).
+     * @param packed The packed position.
+     * @return The position encoded in the given value.
+     */
+    public static Position unpack(long packed) {
+        return of((int) (packed >> 32), (int) packed);
+    }
+
+    /**
+     * Gets the position at a given cell index in a grid (see {@link #index(int)}).
+     * @param index The cell index.
+     * @param numCols The number of columns in the grid.
+     * @return The position at the given index.
+     */
+    public static Position fromIndex(long index, int numCols) {
+        return of((int) (index / numCols), (int) (index % numCols));
+    }
+
     public int getRow() {
         return row;
     }
@@ -30,6 +74,24 @@ public class Position implements Cloneable {
         return col;
     }
 
+    /**
+     * Packs this position into a single {@code long}, with the row in the upper 32 bits and
+     * the column in the lower 32 bits.
+     * @return This position packed into a {@code long}.
+     */
+    public long pack() {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the cell index of this position in a grid ({@code row * numCols + col}).
+     * @param numCols The number of columns in the grid.
+     * @return The cell index of this position.
+     */
+    public long index(int numCols) {
+        return (long) row * numCols + col;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (other instanceof Position otherPos) {
@@ -39,16 +101,18 @@ public class Position implements Cloneable {
         }
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * row + col;
+    }
+
     /**
      * Gets a new position given by moving this position in a given direction.
      * @param dir The direction to move in.
      * @return The result of moving this position in the given direction.
      */
     public Position movedIn(Direction dir) {
-        Position newPos = clone();
-        newPos.row += dir.getRowChange();
-        newPos.col += dir.getColChange();
-        return newPos;
+        return of(row + dir.getRowChange(), col + dir.getColChange());
     }
 
     @Override
@@ -65,9 +129,4 @@ public class Position implements Cloneable {
         return grid[row][col];
     }
 
-    @Override
-    public Position clone() {
-        return new Position(this);
-    }
-
 }
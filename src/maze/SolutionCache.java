@@ -0,0 +1,93 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory cache of maze solutions, keyed by {@link Maze#getContentHash()} and evicting the
+ * least recently used solution once full. Solutions are stored as run-length encoded steps
+ * (see {@link SolvedPath#toRunLength()}), and can also be saved to and read from files.
+ */
+public class SolutionCache {
+
+    /** The file extension appended to a maze's filename to get its solution file. */
+    public static final String EXTENSION = ".solution";
+
+    private final Map<Long, String> solutions;
+
+    /**
+     * Creates a new empty cache.
+     * @param capacity The maximum number of solutions kept in memory.
+     */
+    public SolutionCache(int capacity) {
+        this.solutions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached solution of the maze with the given hash.
+     * @param hash The content hash of the maze.
+     * @return The run-length encoded solution, or {@code null} if it isn't cached.
+     */
+    public synchronized String get(long hash) {
+        return solutions.get(hash);
+    }
+
+    /**
+     * Caches the solution of the maze with the given hash.
+     * @param hash The content hash of the maze.
+     * @param solution The run-length encoded solution.
+     */
+    public synchronized void put(long hash, String solution) {
+        solutions.put(hash, solution);
+    }
+
+    /**
+     * Gets the number of solutions cached in memory.
+     * @return The number of cached solutions.
+     */
+    public synchronized int size() {
+        return solutions.size();
+    }
+
+    /**
+     * Reads a solution saved by {@link #save(Path, long, String)}.
+     * @param file The file the solution was saved to.
+     * @param hash The content hash of the maze being solved.
+     * @return The run-length encoded solution, or {@code null} if the file doesn't exist, can't
+     *         be read or holds the solution of a different maze.
+     */
+    public static String load(Path file, long hash) {
+        try {
+            String[] tokens = Files.readString(file).trim().split(" ");
+            if (tokens.length == 2 && tokens[0].equals(Long.toHexString(hash))) {
+                return tokens[1];
+            }
+        } catch (IOException e) {
+            // A missing or unreadable file is treated as a cache miss
+        }
+        return null;
+    }
+
+    /**
+     * Saves a solution to a file, along with the hash of the maze it solves.
+     * @param file The file to save the solution to.
+     * @param hash The content hash of the maze.
+     * @param solution The run-length encoded solution.
+     */
+    public static void save(Path file, long hash, String solution) {
+        try {
+            Files.writeString(file, Long.toHexString(hash) + " " + solution);
+        } catch (IOException e) {
+            // Saving is best-effort; the solution is still cached in memory
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+package maze;
+
+/**
+ * A route through a maze, stored as a start cell followed by the direction of each step
+ * (packed into 2 bits per step).
+ */
+public class SolvedPath {
+
+    private final long startIndex;
+    private final PackedGrid steps;
+
+    /**
+     * Creates a new route.
+     * @param startIndex The index of the cell the route starts at.
+     * @param steps The ordinal of the {@link Direction} of each step.
+     */
+    SolvedPath(long startIndex, PackedGrid steps) {
+        this.startIndex = startIndex;
+        this.steps = steps;
+    }
+
+    public long getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * Gets the number of steps in this route.
+     * @return The number of steps in this route.
+     */
+    public long length() {
+        return steps.size();
+    }
+
+    /**
+     * Gets the direction of a step in this route.
+     * @param i The number of the step (0 is the first step).
+     * @return The direction moved in at that step.
+     */
+    public Direction getStep(long i) {
+        return Direction.fromOrdinal(steps.get(i));
+    }
+
+    /**
+     * Encodes the steps of this route as runs of repeated directions, each written as a count
+     * followed by the first letter of the direction (e.g. {@code "4D2R2U"}).
+     * @return The run-length encoded steps.
+     */
+    public String toRunLength() {
+        StringBuilder encoded = new StringBuilder();
+        long i = 0;
+        while (i < length()) {
+            int dir = steps.get(i);
+            long runEnd = i + 1;
+            while (runEnd < length() && steps.get(runEnd) == dir) {
+                runEnd++;
+            }
+            encoded.append(runEnd - i).append(Direction.fromOrdinal(dir).name().charAt(0));
+            i = runEnd;
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Decodes a route from run-length encoded steps (see {@link #toRunLength()}).
+     * @param startIndex The index of the cell the route starts at.
+     * @param encoded The run-length encoded steps.
+     * @return The decoded route.
+     * @throws IllegalArgumentException When the encoded steps are malformed.
+     */
+    public static SolvedPath fromRunLength(long startIndex, String encoded)
+            throws IllegalArgumentException {
+        // Counts the steps first so they can be packed into a grid of the right size
+        long length = 0;
+        long count = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (isDigit(c)) {
+                try {
+                    count = Math.addExact(Math.multiplyExact(count, 10), c - '0');
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Run length too long");
+                }
+            } else {
+                if (count == 0) {
+                    throw new IllegalArgumentException("Missing run length");
+                }
+                try {
+                    length = Math.addExact(length, count);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Route too long");
+                }
+                count = 0;
+            }
+        }
+        if (count != 0) {
+            throw new IllegalArgumentException("Missing run direction");
+        }
+
+        PackedGrid steps = new PackedGrid(length);
+        long step = 0;
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (isDigit(c)) {
+                // Can't overflow, since every count was checked above
+                count = count * 10 + (c - '0');
+            } else {
+                int dir = switch (c) {
+                    case 'U' -> Direction.UP.ordinal();
+                    case 'D' -> Direction.DOWN.ordinal();
+                    case 'L' -> Direction.LEFT.ordinal();
+                    case 'R' -> Direction.RIGHT.ordinal();
+                    default -> throw new IllegalArgumentException(
+                            "Invalid run direction: %s".formatted(c));
+                };
+                for (; count > 0; count--) {
+                    steps.set(step++, dir);
+                }
+            }
+        }
+        return new SolvedPath(startIndex, steps);
+    }
+
+    /**
+     * Checks if a character is an ASCII digit (unlike {@link Character#isDigit(char)}, which
+     * also accepts digits from other scripts).
+     * @param c The character.
+     * @return Whether the character is {@code 0} to {@code 9}.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
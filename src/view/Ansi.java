@@ -1,11 +1,19 @@
 package view;
 
 /**
- * A utility class for ANSI characters used to print to the console in colour.
+ * A utility class for ANSI characters used to print to the console in colour, and to move the
+ * cursor around the console.
  */
 class Ansi {
 
     private static final String RESET = "\u001B[0m";
+    /** The start of every ANSI control sequence. */
+    private static final String CSI = "\u001B[";
+
+    /** Clears the whole console (without moving the cursor). */
+    public static final String CLEAR_SCREEN = CSI + "2J";
+    /** Clears the console from the cursor to the end. */
+    public static final String CLEAR_BELOW = CSI + "J";
 
     public static final String RED = "\u001B[31m";
     public static final String GREEN = "\u001B[32m";
@@ -21,4 +29,39 @@ class Ansi {
         return colour + text + RESET;
     }
 
+    /**
+     * Gets the number of characters of a string that are printed, leaving out the ANSI control
+     * sequences (e.g. colours) in it.
+     * @param text The text to measure.
+     * @return The number of visible characters.
+     */
+    public static int visibleLength(String text) {
+        int length = 0;
+        int i = 0;
+        while (i < text.length()) {
+            if (text.startsWith(CSI, i)) {
+                // Skips to the final character of the sequence (from '@' to '~')
+                i += CSI.length();
+                while (i < text.length() && (text.charAt(i) < '@' || text.charAt(i) > '~')) {
+                    i++;
+                }
+            } else {
+                length++;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * Appends the ANSI characters that move the cursor to a position in the console.
+     * @param text The text to append to.
+     * @param line The line to move to, from 0 at the top of the console.
+     * @param column The column to move to, from 0 at the left of the console.
+     * @return The text, for chaining.
+     */
+    public static StringBuilder moveCursor(StringBuilder text, int line, int column) {
+        return text.append(CSI).append(line + 1).append(';').append(column + 1).append('H');
+    }
+
 }
@@ -13,10 +13,16 @@ import java.util.EventListener;
  */
 public class GUIView extends View<Color> {
 
+    /** The action command of the button that autosolves the maze. */
+    public static final String SOLVE_COMMAND = "solve";
+    /** The action command of the button that cancels the autosolver. */
+    public static final String CANCEL_COMMAND = "cancel";
+
     /** The title for the GUI window. */
     private static final String TITLE = "Solve the maze (%s)";
-    private static final String INVALID_DIRECTION =
-            "Invalid key pressed. Use either the WASD keys or the arrow keys to navigate.";
+    private static final String INVALID_DIRECTION = "Invalid key pressed. Use either the WASD "
+            + "keys or the arrow keys to navigate, or press H for a hint.";
+    private static final String PROGRESS = "Explored %,d cells (%,d waiting)";
 
     /** The maximum height of the window. */
     private static final int MAX_HEIGHT = 600;
@@ -24,10 +30,14 @@ public class GUIView extends View<Color> {
     private static final int MAX_WIDTH = 1000;
 
     private final JFrame frame;
-    /** The panels corresponding to each maze cell. */
-    private final JPanel[][] panels;
+    /** The component that draws every maze cell. */
+    private final MazeCanvas canvas;
     /** The button that autosolves the maze when pressed. */
     private final JButton button;
+    /** Shows how far the autosolver has got while it runs. */
+    private final JProgressBar progressBar;
+    /** The button that cancels the autosolver while it runs. */
+    private final JButton cancelButton;
 
     /**
      * Creates a new GUI view with the given maze.
@@ -44,10 +54,6 @@ public class GUIView extends View<Color> {
         cellAppearance.put(Cell.WALL, Colours.WALL);
         cellAppearance.put(Cell.START, Colours.START);
         cellAppearance.put(Cell.END, Colours.END);
-        appearanceView = new Color[maze.getNumRows()][maze.getNumCols()];
-        maze.forEachPos(pos -> {
-            appearanceView[pos.getRow()][pos.getCol()] = cellAppearance.get(maze.getCell(pos));
-        });
 
         // Special appearances
         playerAppearance = Colours.PLAYER;
@@ -61,25 +67,28 @@ public class GUIView extends View<Color> {
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         Dimension windowSize = getWindowDimensions(maze.getNumCols(), maze.getNumRows());
 
-        // Adding panels and layout
-        GridLayout gridLayout = new GridLayout(maze.getNumRows(), maze.getNumCols());
-        JPanel mainPanel = new JPanel();
-        mainPanel.setPreferredSize(windowSize);
-        mainPanel.setLayout(gridLayout);
-        panels = new JPanel[maze.getNumRows()][maze.getNumCols()];
-        this.maze.forEachPos(pos -> {
-            JPanel panel = new JPanel();
-            mainPanel.add(panel);
-            panels[pos.getRow()][pos.getCol()] = panel;
-        });
-
-        // Button
-        frame.add(new JPanel(), BorderLayout.SOUTH);
+        // Canvas that draws the cells
+        canvas = new MazeCanvas(maze.getNumRows(), maze.getNumCols(),
+                (row, col) -> appearanceAt(Position.of(row, col)).getRGB(), windowSize);
+
+        // Buttons and autosolver progress (only shown while the autosolver runs)
+        JPanel controls = new JPanel();
         button = new JButton("Autosolve");
-        frame.add(button, BorderLayout.SOUTH);
+        button.setActionCommand(SOLVE_COMMAND);
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        cancelButton = new JButton("Cancel");
+        cancelButton.setActionCommand(CANCEL_COMMAND);
+        cancelButton.setVisible(false);
+        controls.add(button);
+        controls.add(progressBar);
+        controls.add(cancelButton);
+        frame.add(controls, BorderLayout.SOUTH);
 
         // Final window setup
-        frame.add(mainPanel, BorderLayout.CENTER);
+        frame.add(canvas, BorderLayout.CENTER);
         frame.pack();
 
     }
@@ -106,7 +115,8 @@ public class GUIView extends View<Color> {
 
     /**
      * Gets suitable window dimensions that preserve the aspect ratio of the maze without
-     * exceeding the maximum dimensions.
+     * exceeding the maximum dimensions. Mazes too large to fit are viewed through the canvas's
+     * camera (see {@link MazeCanvas}).
      * @param numCols The number of columns in the maze.
      * @param numRows The number of rows in the maze.
      * @return The suitable dimensions for this maze.
@@ -121,9 +131,29 @@ public class GUIView extends View<Color> {
         }
     }
 
+    @Override
+    public void update() {
+        // The canvas reads every cell again as it is drawn, so the cells aren't visited here
+        maze.drainChangedCells(index -> { });
+        canvas.allCellsChanged();
+        canvas.follow(maze.positionOf(maze.getUserIndex()));
+    }
+
+    @Override
+    public void updateChanged() {
+        super.updateChanged();
+        canvas.follow(maze.positionOf(maze.getUserIndex()));
+    }
+
+    /**
+     * Draws a changed cell. The canvas reads the cell's appearance itself (see
+     * {@link #appearanceAt(Position)}) whenever it draws it.
+     * @param pos The position to update.
+     * @param appearance How the view should appear at that position.
+     */
     @Override
     public void updateAt(Position pos, Color appearance) {
-        pos.select(panels).setBackground(appearance);
+        canvas.cellChanged(pos.getRow(), pos.getCol());
     }
 
     @Override
@@ -154,10 +184,57 @@ public class GUIView extends View<Color> {
         button.setEnabled(false);
     }
 
+    @Override
+    public void showHint(Direction dir, int distance) {
+        if (dir == null) {
+            showMessage(NO_HINT);
+        } else {
+            showMessage(HINT.formatted(dir.name().toLowerCase(), distance));
+        }
+    }
+
+    @Override
+    public void warnUnknownSolver(String name) {
+        showMessage(UNKNOWN_SOLVER.formatted(name));
+    }
+
+    /**
+     * Shows that the autosolver is running, with a button to cancel it.
+     */
+    public void showSolving() {
+        button.setEnabled(false);
+        progressBar.setString(PROGRESS.formatted(0, 0));
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        frame.validate();
+    }
+
+    /**
+     * Shows how far the autosolver has got.
+     * @param expanded The number of cells the autosolver has explored.
+     * @param frontierSize The number of cells waiting to be explored.
+     */
+    public void showProgress(long expanded, int frontierSize) {
+        progressBar.setString(PROGRESS.formatted(expanded, frontierSize));
+    }
+
+    /**
+     * Hides the autosolver's progress once it has stopped.
+     * @param cancelled Whether the autosolver was cancelled, in which case it can be run again.
+     */
+    public void hideSolving(boolean cancelled) {
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+        button.setEnabled(cancelled);
+        frame.validate();
+    }
+
     public void addListener(EventListener listener) {
         frame.addKeyListener((KeyListener) listener);
-        button.addKeyListener((KeyListener) listener);
-        button.addActionListener((ActionListener) listener);
+        for (JButton eachButton : new JButton[]{button, cancelButton}) {
+            eachButton.addKeyListener((KeyListener) listener);
+            eachButton.addActionListener((ActionListener) listener);
+        }
     }
 
     /**
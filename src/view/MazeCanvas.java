@@ -0,0 +1,403 @@
+package view;
+
+import maze.Position;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A single component that draws a maze through a camera that follows the player, for mazes
+ * far too large to give each cell its own component or to fit on the screen.
+ * <p>
+ * The colour of each cell is read from the view when it is drawn rather than kept here, and
+ * the camera draws the maze at a zoom level of {@code 2^zoom} pixels per cell. Zoomed in (or
+ * out a little), the visible part of the maze is drawn from square tiles kept in a
+ * {@link TileCache}; zoomed further out, it is drawn from a level of a {@link MazePyramid},
+ * which also gives a minimap of the whole maze. Either way, only the part of the maze inside
+ * the area being repainted is drawn, so the cost of each frame depends on the size of the view
+ * rather than the size of the maze, and the memory used is bounded however large the maze is.
+ * Changing a cell only repaints the pixels it covers.
+ * <p>
+ * The mouse wheel zooms in and out around the pointer, and dragging pans the camera. The
+ * camera moves back to the player when they move near the edge of the view.
+ */
+class MazeCanvas extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /** The highest zoom level ({@code 2^5 = 32} pixels per cell). */
+    private static final int MAX_ZOOM = 5;
+    /** The lowest zoom level that the maze is first drawn at, so its cells can be seen. */
+    private static final int MIN_START_ZOOM = 2;
+    /** The most tiles cached, enough to cover a full-screen view a few times over. */
+    private static final int TILE_CACHE_SIZE = 96;
+    /** The lowest zoom level drawn from tiles ({@code 2^-3} pixels per cell), so drawing a tile
+     * never reads more than 64 cells per pixel. */
+    private static final int MIN_TILE_ZOOM = -3;
+    /** The most pixels in a level of the pyramid ({@code 2^22}, or 16 MB). */
+    private static final long MAX_LEVEL_PIXELS = 1L << 22;
+    /** How close (as a fraction of the view) the player can get to the edge of the view
+     * before the camera moves back to them. */
+    private static final double FOLLOW_MARGIN = 0.2;
+    /** The largest width/height of the minimap in pixels. */
+    private static final int MINIMAP_SIZE = 160;
+    /** The gap between the minimap and the edges of the view in pixels. */
+    private static final int MINIMAP_MARGIN = 8;
+    /** The width/height of the marker drawn over the player when cells are too small to see. */
+    private static final int PLAYER_MARKER = 5;
+    /** The colour of the area outside the maze. */
+    private static final Color BACKGROUND = Color.DARK_GRAY;
+    /** The colour of the minimap's border and of the view's outline on it. */
+    private static final Color MINIMAP_OUTLINE = Color.ORANGE;
+
+    private final int numRows;
+    private final int numCols;
+    /** Gets the colour of the cell at a row and column. */
+    private final IntBinaryOperator colours;
+    private final TileCache tiles;
+    private final MazePyramid pyramid;
+    /** The lowest zoom level, at which the whole maze is a single pixel. */
+    private final int minZoom;
+    /** The lowest zoom level drawn from tiles. Zoom levels between this and the first level of
+     * the pyramid are skipped. */
+    private final int minTileZoom;
+
+    /** The current zoom level ({@code 2^zoom} pixels per cell). */
+    private int zoom;
+    /** The row (in cells, possibly fractional) at the centre of the view. */
+    private double centreRow;
+    /** The column (in cells, possibly fractional) at the centre of the view. */
+    private double centreCol;
+    /** The position of the player, or {@code null} before it is first set. */
+    private Position player;
+    /** Where the mouse was last dragged to, or {@code null} if it isn't being dragged. */
+    private Point dragPoint;
+
+    /**
+     * Creates a new canvas.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param colours Gets the colour ({@link Color#getRGB()}) of the cell at a row and column,
+     *                which is called whenever the cell is drawn.
+     * @param size The preferred size of the canvas.
+     */
+    MazeCanvas(int numRows, int numCols, IntBinaryOperator colours, Dimension size) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.colours = colours;
+        this.pyramid = new MazePyramid(colours, numRows, numCols, MAX_LEVEL_PIXELS);
+        this.minZoom = -pyramid.getMaxLevel();
+        this.minTileZoom = Math.max(MIN_TILE_ZOOM, 1 - pyramid.getFirstLevel());
+        this.tiles = new TileCache(TILE_CACHE_SIZE, colours, numRows, numCols, minTileZoom,
+                MAX_ZOOM, BACKGROUND.getRGB());
+
+        // Starts zoomed in as far as possible with the whole maze in view, but not so far out
+        // that the cells can't be seen
+        zoom = MAX_ZOOM;
+        while (zoom > MIN_START_ZOOM
+                && (toPixels(numCols) > size.width || toPixels(numRows) > size.height)) {
+            zoom--;
+        }
+        centreRow = numRows / 2.0;
+        centreCol = numCols / 2.0;
+        setPreferredSize(size);
+        setOpaque(true);
+        addListeners();
+    }
+
+    /**
+     * Draws a cell whose colour has changed, repainting the pixels it covers.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    void cellChanged(int row, int col) {
+        tiles.cellChanged(row, col);
+        pyramid.cellChanged(row, col);
+
+        // Repaints the cell, or the player marker that could be over it
+        long x = toPixels(col) - originX();
+        long y = toPixels(row) - originY();
+        int size = (int) Math.max(1, toPixels(1));
+        int border = zoom <= 0 ? PLAYER_MARKER : 0;
+        if (x + size + border >= 0 && x - border < getWidth()
+                && y + size + border >= 0 && y - border < getHeight()) {
+            repaint((int) x - border, (int) y - border, size + 2 * border, size + 2 * border);
+        }
+        Rectangle minimap = minimapBounds();
+        if (minimap != null) {
+            repaint(minimap);
+        }
+    }
+
+    /**
+     * Draws every cell again (e.g. after every cell has changed).
+     */
+    void allCellsChanged() {
+        tiles.clear();
+        pyramid.clear();
+        repaint();
+    }
+
+    /**
+     * Sets the position of the player, moving the camera back to them if they are near the
+     * edge of the view.
+     * @param pos The position of the player.
+     */
+    void follow(Position pos) {
+        player = pos;
+        long x = toPixels(pos.getCol()) - originX();
+        long y = toPixels(pos.getRow()) - originY();
+        if (x < getWidth() * FOLLOW_MARGIN || x > getWidth() * (1 - FOLLOW_MARGIN)
+                || y < getHeight() * FOLLOW_MARGIN || y > getHeight() * (1 - FOLLOW_MARGIN)) {
+            centreRow = pos.getRow() + 0.5;
+            centreCol = pos.getCol() + 0.5;
+            clampCentre();
+            repaint();
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(getWidth(), getHeight());
+        }
+        g.setColor(BACKGROUND);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        long originX = originX();
+        long originY = originY();
+
+        // Only draws the part of the maze inside the area being repainted
+        if (zoom >= minTileZoom) {
+            int cellsPerTile = TileCache.cellsPerTile(zoom);
+            long firstTileCol = Math.max(0,
+                    Math.floorDiv(clip.x + originX, TileCache.TILE_PIXELS));
+            long firstTileRow = Math.max(0,
+                    Math.floorDiv(clip.y + originY, TileCache.TILE_PIXELS));
+            long lastTileCol = Math.min((numCols - 1) / cellsPerTile,
+                    Math.floorDiv(clip.x + clip.width - 1 + originX, TileCache.TILE_PIXELS));
+            long lastTileRow = Math.min((numRows - 1) / cellsPerTile,
+                    Math.floorDiv(clip.y + clip.height - 1 + originY, TileCache.TILE_PIXELS));
+            for (long tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+                for (long tileCol = firstTileCol; tileCol <= lastTileCol; tileCol++) {
+                    g.drawImage(tiles.get(zoom, (int) tileRow, (int) tileCol),
+                            (int) (tileCol * TileCache.TILE_PIXELS - originX),
+                            (int) (tileRow * TileCache.TILE_PIXELS - originY), null);
+                }
+            }
+        } else {
+            BufferedImage level = pyramid.getLevel(-zoom);
+            int firstX = (int) Math.max(0, clip.x + originX);
+            int firstY = (int) Math.max(0, clip.y + originY);
+            int lastX = (int) Math.min(level.getWidth(), clip.x + clip.width + originX);
+            int lastY = (int) Math.min(level.getHeight(), clip.y + clip.height + originY);
+            if (firstX < lastX && firstY < lastY) {
+                g.drawImage(level, (int) (firstX - originX), (int) (firstY - originY),
+                        (int) (lastX - originX), (int) (lastY - originY),
+                        firstX, firstY, lastX, lastY, null);
+            }
+        }
+
+        // Marks the player when cells are too small to see
+        if (player != null && zoom <= 0) {
+            g.setColor(new Color(colours.applyAsInt(player.getRow(), player.getCol())));
+            g.fillRect((int) (toPixels(player.getCol()) - originX) - PLAYER_MARKER / 2,
+                    (int) (toPixels(player.getRow()) - originY) - PLAYER_MARKER / 2,
+                    PLAYER_MARKER, PLAYER_MARKER);
+        }
+
+        Rectangle minimap = minimapBounds();
+        if (minimap != null && minimap.intersects(clip)) {
+            drawMinimap(g, minimap);
+        }
+    }
+
+    /**
+     * Draws the minimap of the whole maze, outlining the part of it in view.
+     * @param g The graphics to draw with.
+     * @param bounds Where to draw the minimap (see {@link #minimapBounds()}).
+     */
+    private void drawMinimap(Graphics2D g, Rectangle bounds) {
+        int level = minimapLevel();
+        g.drawImage(pyramid.getLevel(level), bounds.x, bounds.y, null);
+        g.setColor(MINIMAP_OUTLINE);
+        g.drawRect(bounds.x - 1, bounds.y - 1, bounds.width + 1, bounds.height + 1);
+
+        // Converts the view from pixels at the current zoom to pixels of the minimap
+        double scale = Math.scalb(1.0, -zoom - level);
+        Graphics clipped = g.create();
+        clipped.clipRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        clipped.drawRect(bounds.x + (int) Math.floor(originX() * scale),
+                bounds.y + (int) Math.floor(originY() * scale),
+                Math.max(1, (int) Math.ceil(getWidth() * scale) - 1),
+                Math.max(1, (int) Math.ceil(getHeight() * scale) - 1));
+        clipped.dispose();
+    }
+
+    /**
+     * Gets where the minimap is drawn, in the top right corner of the view.
+     * @return The bounds of the minimap, or {@code null} if the whole maze is in view (in which
+     *         case there is no minimap).
+     */
+    private Rectangle minimapBounds() {
+        if (pyramid.getMaxLevel() == 0
+                || toPixels(numCols) <= getWidth() && toPixels(numRows) <= getHeight()) {
+            return null;
+        }
+        int level = minimapLevel();
+        int width = MazePyramid.levelSize(numCols, level);
+        int height = MazePyramid.levelSize(numRows, level);
+        return new Rectangle(getWidth() - MINIMAP_MARGIN - width, MINIMAP_MARGIN,
+                width, height);
+    }
+
+    /**
+     * Gets the level of the pyramid used for the minimap.
+     * @return The lowest level kept that is no larger than the largest minimap size.
+     */
+    private int minimapLevel() {
+        int level = pyramid.getFirstLevel();
+        while (level < pyramid.getMaxLevel()
+                && (MazePyramid.levelSize(numCols, level) > MINIMAP_SIZE
+                || MazePyramid.levelSize(numRows, level) > MINIMAP_SIZE)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Converts a number of cells to a number of pixels at the current zoom level.
+     * @param numCells The number of cells (e.g. a row or column).
+     * @return The number of pixels, rounded down.
+     */
+    private long toPixels(long numCells) {
+        return zoom >= 0 ? numCells << zoom : numCells >> -zoom;
+    }
+
+    /**
+     * Gets the scale of the current zoom level.
+     * @return The number of pixels per cell (less than 1 when zoomed out).
+     */
+    private double scale() {
+        return Math.scalb(1.0, zoom);
+    }
+
+    /**
+     * Gets the pixel of the maze (at the current zoom level) at the left edge of the view.
+     * @return The pixel column, which is negative if the view starts before the maze.
+     */
+    private long originX() {
+        return (long) Math.floor(centreCol * scale() - getWidth() / 2.0);
+    }
+
+    /**
+     * Gets the pixel of the maze (at the current zoom level) at the top edge of the view.
+     * @return The pixel row, which is negative if the view starts above the maze.
+     */
+    private long originY() {
+        return (long) Math.floor(centreRow * scale() - getHeight() / 2.0);
+    }
+
+    /**
+     * Keeps the view over the maze: centred on it along an axis where it fits in the view, and
+     * otherwise not past either edge of it.
+     */
+    private void clampCentre() {
+        centreCol = clamp(centreCol, numCols, getWidth() / 2.0 / scale());
+        centreRow = clamp(centreRow, numRows, getHeight() / 2.0 / scale());
+    }
+
+    /**
+     * Keeps the centre of the view over the maze along one axis.
+     * @param centre The centre of the view in cells.
+     * @param numCells The number of rows/columns in the maze.
+     * @param halfView Half the width/height of the view in cells.
+     * @return The nearest centre that keeps the view over the maze.
+     */
+    private static double clamp(double centre, int numCells, double halfView) {
+        if (2 * halfView >= numCells) {
+            return numCells / 2.0;
+        }
+        return Math.max(halfView, Math.min(numCells - halfView, centre));
+    }
+
+    /**
+     * Zooms in or out, keeping the cell under a point of the view in place.
+     * @param newZoom The new zoom level (limited to the lowest and highest levels).
+     * @param point The point of the view to zoom around.
+     */
+    private void zoomTo(int newZoom, Point point) {
+        newZoom = Math.max(minZoom, Math.min(MAX_ZOOM, newZoom));
+        if (newZoom < minTileZoom && newZoom > -pyramid.getFirstLevel()) {
+            // Skips to the next level that can be drawn in the direction of the zoom
+            newZoom = newZoom < zoom ? Math.max(minZoom, -pyramid.getFirstLevel())
+                    : minTileZoom;
+        }
+        if (newZoom == zoom) {
+            return;
+        }
+        double col = (originX() + point.x) / scale();
+        double row = (originY() + point.y) / scale();
+        zoom = newZoom;
+        centreCol = col - (point.x - getWidth() / 2.0) / scale();
+        centreRow = row - (point.y - getHeight() / 2.0) / scale();
+        clampCentre();
+        repaint();
+    }
+
+    /**
+     * Adds the listeners that zoom and pan with the mouse, and keep the player in view when the
+     * canvas is resized.
+     */
+    private void addListeners() {
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent event) {
+                zoomTo(zoom - event.getWheelRotation(), event.getPoint());
+            }
+
+            @Override
+            public void mousePressed(MouseEvent event) {
+                dragPoint = event.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent event) {
+                if (dragPoint != null) {
+                    centreCol -= (event.getX() - dragPoint.x) / scale();
+                    centreRow -= (event.getY() - dragPoint.y) / scale();
+                    dragPoint = event.getPoint();
+                    clampCentre();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent event) {
+                dragPoint = null;
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent event) {
+                clampCentre();
+                if (player != null) {
+                    follow(player);
+                }
+                repaint();
+            }
+        });
+    }
+
+}
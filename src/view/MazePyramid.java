@@ -0,0 +1,179 @@
+package view;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Downsampled images of a maze, used to draw it zoomed out and as a minimap.
+ * <p>
+ * Each pixel of level {@code k} is the average colour of the {@code 2^k x 2^k} block of cells
+ * it covers. Only levels of at most {@code maxPixels} pixels are kept, so the memory used
+ * doesn't grow with the size of the maze: the lowest of these (the first level) is drawn from
+ * the colour of each cell, and each level above it from the 2 x 2 pixels of the level below.
+ * Levels are built the first time they are needed, and a changed cell only recomputes the one
+ * pixel covering it in each level that has been built.
+ */
+class MazePyramid {
+
+    /** Gets the colour of the cell at a row and column. */
+    private final IntBinaryOperator colours;
+    private final int numRows;
+    private final int numCols;
+    /** The lowest level kept. */
+    private final int firstLevel;
+    /** The levels built so far, from the first level up. */
+    private final List<BufferedImage> levels = new ArrayList<>();
+
+    /**
+     * Creates a new pyramid over the colours of a maze's cells.
+     * @param colours Gets the colour of the cell at a row and column.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param maxPixels The most pixels in a level that is kept.
+     */
+    MazePyramid(IntBinaryOperator colours, int numRows, int numCols, long maxPixels) {
+        this.colours = colours;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        int level = 1;
+        while ((long) levelSize(numRows, level) * levelSize(numCols, level) > maxPixels) {
+            level++;
+        }
+        this.firstLevel = level;
+    }
+
+    /**
+     * Gets the lowest level kept, below which the maze has to be drawn some other way.
+     * @return The first level (at least 1).
+     */
+    int getFirstLevel() {
+        return firstLevel;
+    }
+
+    /**
+     * Gets the number of levels above level 0, up to the level that is a single pixel.
+     * @return The highest level.
+     */
+    int getMaxLevel() {
+        int level = 0;
+        while (Math.max(levelSize(numRows, level), levelSize(numCols, level)) > 1) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Gets a level of the pyramid, building it (and any levels below it) if needed.
+     * @param level The level to get, from the first level to {@link #getMaxLevel()}.
+     * @return The image of the level, with one pixel per {@code 2^level} cells each way.
+     */
+    BufferedImage getLevel(int level) {
+        while (firstLevel + levels.size() <= level) {
+            int next = firstLevel + levels.size();
+            BufferedImage image = new BufferedImage(levelSize(numCols, next),
+                    levelSize(numRows, next), BufferedImage.TYPE_INT_RGB);
+            levels.add(image);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    downsample(next, y, x);
+                }
+            }
+        }
+        return levels.get(level - firstLevel);
+    }
+
+    /**
+     * Recomputes the pixel covering a changed cell in each level that has been built.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    void cellChanged(int row, int col) {
+        for (int level = firstLevel; level < firstLevel + levels.size(); level++) {
+            downsample(level, row >> level, col >> level);
+        }
+    }
+
+    /**
+     * Forgets every level, so they are built again from the cells when next needed (e.g. after
+     * every cell has changed).
+     */
+    void clear() {
+        levels.clear();
+    }
+
+    /**
+     * Sets a pixel of a level to the average colour of the cells it covers (for the first
+     * level) or of the pixels it covers in the level below.
+     * @param level The level of the pixel.
+     * @param y The row of the pixel.
+     * @param x The column of the pixel.
+     */
+    private void downsample(int level, int y, int x) {
+        BufferedImage image = levels.get(level - firstLevel);
+        int colour;
+        if (level == firstLevel) {
+            colour = average(colours, (long) y << level, (long) x << level, 1 << level,
+                    numRows, numCols);
+        } else {
+            int[] below = pixels(levels.get(level - firstLevel - 1));
+            int belowWidth = levelSize(numCols, level - 1);
+            colour = average((by, bx) -> below[by * belowWidth + bx], 2L * y, 2L * x, 2,
+                    levelSize(numRows, level - 1), belowWidth);
+        }
+        pixels(image)[y * image.getWidth() + x] = colour;
+    }
+
+    /**
+     * Gets the average colour of a square block of cells, leaving out any part of the block
+     * past the edge of the maze.
+     * @param colours Gets the colour of the cell at a row and column.
+     * @param firstRow The top row of the block.
+     * @param firstCol The left column of the block.
+     * @param blockSize The number of rows/columns in the block.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @return The average colour.
+     */
+    static int average(IntBinaryOperator colours, long firstRow, long firstCol, int blockSize,
+                       int numRows, int numCols) {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        long count = 0;
+        int lastRow = (int) Math.min(numRows, firstRow + blockSize);
+        int lastCol = (int) Math.min(numCols, firstCol + blockSize);
+        for (int row = (int) firstRow; row < lastRow; row++) {
+            for (int col = (int) firstCol; col < lastCol; col++) {
+                int rgb = colours.applyAsInt(row, col);
+                red += (rgb >> 16) & 0xFF;
+                green += (rgb >> 8) & 0xFF;
+                blue += rgb & 0xFF;
+                count++;
+            }
+        }
+        return (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+    }
+
+    /**
+     * Gets the number of pixels along one axis of a level.
+     * @param numCells The number of rows/columns in the maze.
+     * @param level The level.
+     * @return The height/width of the level (rounded up, so every cell is covered).
+     */
+    static int levelSize(int numCells, int level) {
+        return (int) (((long) numCells + (1L << level) - 1) >> level);
+    }
+
+    /**
+     * Gets the pixels of an image created by this class.
+     * @param image The image.
+     * @return The colour of each pixel ({@code y * width + x}).
+     */
+    static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+}
@@ -0,0 +1,234 @@
+package view;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+import static view.Ansi.*;
+
+/**
+ * Draws a maze to a terminal, one frame at a time.
+ * <p>
+ * The cells of a frame are set one at a time, then {@link #flush()} builds the whole frame in
+ * a reusable buffer and writes it with a single {@code write}. On a terminal that understands
+ * ANSI escape codes, the first frame clears the screen and every later frame only moves the
+ * cursor to (and redraws) the cells that changed, so the cost of a move doesn't grow with the
+ * size of the maze. Otherwise (e.g. when the output is piped to a file) every frame is printed
+ * in full below the last.
+ * <p>
+ * Mazes too large for the terminal are drawn through a window, which is centred on the player
+ * whenever they get near its edge (see {@link #follow(int, int)}).
+ */
+class TerminalRenderer {
+
+    /** The number of terminal columns each cell takes up (every appearance is one emoji). */
+    static final int CELL_WIDTH = 2;
+    /** The number of terminal lines left below the maze for messages and the prompt. */
+    static final int MESSAGE_LINES = 5;
+
+    /** The fraction of the window along each edge that the player can move into before the
+     * window is centred on them again. */
+    private static final double FOLLOW_MARGIN = 0.25;
+
+    private final PrintStream out;
+    /** Whether the terminal understands ANSI escape codes. */
+    private final boolean ansi;
+    private final int numRows;
+    private final int numCols;
+    private final int windowRows;
+    private final int windowCols;
+    /** The maze row at the top of the window. */
+    private int firstRow;
+    /** The maze column at the left of the window. */
+    private int firstCol;
+    /** The appearance of each cell of the window in the next frame ({@code row * windowCols
+     * + col}). */
+    private final String[] wanted;
+    /** The appearance of each cell of the window on the terminal ({@code null} if unknown). */
+    private final String[] shown;
+    /** Whether any cell has been set since the last frame. */
+    private boolean changed;
+    /** Whether the screen has been cleared for the first frame. */
+    private boolean started;
+    /** The number of lines printed below the maze since the last frame. */
+    private int linesBelow;
+
+    /** The frame being built. */
+    private final StringBuilder frame = new StringBuilder();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    /** The encoded frame, grown as needed. */
+    private ByteBuffer bytes = ByteBuffer.allocate(1 << 16);
+
+    /**
+     * Creates a new renderer.
+     * @param out The stream to write frames to.
+     * @param ansi Whether the terminal understands ANSI escape codes. Without them, the whole
+     *             maze is always drawn (with no window).
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param termRows The number of lines in the terminal.
+     * @param termCols The number of columns in the terminal.
+     */
+    TerminalRenderer(PrintStream out, boolean ansi, int numRows, int numCols, int termRows,
+                     int termCols) {
+        this.out = out;
+        this.ansi = ansi;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.windowRows = ansi ? Math.max(1, Math.min(numRows, termRows - MESSAGE_LINES))
+                : numRows;
+        this.windowCols = ansi ? Math.max(1, Math.min(numCols, termCols / CELL_WIDTH))
+                : numCols;
+        this.wanted = new String[windowRows * windowCols];
+        this.shown = new String[windowRows * windowCols];
+    }
+
+    int getFirstRow() {
+        return firstRow;
+    }
+
+    int getFirstCol() {
+        return firstCol;
+    }
+
+    int getWindowRows() {
+        return windowRows;
+    }
+
+    int getWindowCols() {
+        return windowCols;
+    }
+
+    /**
+     * Centres the window on the player if they are near its edge.
+     * @param row The row of the player.
+     * @param col The column of the player.
+     * @return Whether the window moved, in which case every cell in it needs to be set again.
+     */
+    boolean follow(int row, int col) {
+        int newFirstRow = follow(firstRow, row, windowRows, numRows);
+        int newFirstCol = follow(firstCol, col, windowCols, numCols);
+        if (newFirstRow == firstRow && newFirstCol == firstCol) {
+            return false;
+        }
+        firstRow = newFirstRow;
+        firstCol = newFirstCol;
+        return true;
+    }
+
+    /**
+     * Moves the window along one axis to centre it on the player if they are near its edge.
+     * @param first The first row/column in the window.
+     * @param player The row/column of the player.
+     * @param window The height/width of the window.
+     * @param numCells The number of rows/columns in the maze.
+     * @return The new first row/column in the window (kept inside the maze).
+     */
+    private static int follow(int first, int player, int window, int numCells) {
+        int margin = (int) (window * FOLLOW_MARGIN);
+        if (player >= first + margin && player < first + window - margin) {
+            return first;
+        }
+        return Math.max(0, Math.min(numCells - window, player - window / 2));
+    }
+
+    /**
+     * Sets how a cell appears in the next frame. Cells outside the window are ignored.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param appearance How the cell appears.
+     */
+    void set(int row, int col, String appearance) {
+        int windowRow = row - firstRow;
+        int windowCol = col - firstCol;
+        if (windowRow >= 0 && windowRow < windowRows
+                && windowCol >= 0 && windowCol < windowCols) {
+            wanted[windowRow * windowCols + windowCol] = appearance;
+            changed = true;
+        }
+    }
+
+    /**
+     * Draws the next frame, if any cells have been set since the last one, then leaves the
+     * cursor below the maze.
+     */
+    void flush() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        frame.setLength(0);
+        if (!ansi) {
+            for (int i = 0; i < wanted.length; i++) {
+                frame.append(wanted[i]);
+                if ((i + 1) % windowCols == 0) {
+                    frame.append(System.lineSeparator());
+                }
+            }
+        } else {
+            if (!started) {
+                frame.append(CLEAR_SCREEN);
+                started = true;
+            }
+
+            // Only moves the cursor when the next changed cell isn't where it already is
+            int cursor = -1;
+            for (int i = 0; i < wanted.length; i++) {
+                if (wanted[i] != null && !wanted[i].equals(shown[i])) {
+                    if (i != cursor || i % windowCols == 0) {
+                        moveCursor(frame, i / windowCols, (i % windowCols) * CELL_WIDTH);
+                    }
+                    frame.append(wanted[i]);
+                    shown[i] = wanted[i];
+                    cursor = i + 1;
+                }
+            }
+            moveCursor(frame, windowRows, 0);
+            frame.append(CLEAR_BELOW);
+            linesBelow = 0;
+        }
+        write();
+    }
+
+    /**
+     * Makes room below the maze for a message or prompt, clearing the messages below the maze
+     * first if they would run past the bottom of the terminal (and scroll the maze).
+     * @param numLines The number of lines the message takes up.
+     */
+    void reserveLines(int numLines) {
+        if (ansi && started && linesBelow + numLines > MESSAGE_LINES) {
+            frame.setLength(0);
+            moveCursor(frame, windowRows, 0);
+            frame.append(CLEAR_BELOW);
+            write();
+            linesBelow = 0;
+        }
+        linesBelow += numLines;
+    }
+
+    /**
+     * Encodes the frame into the reusable buffer and writes it all at once.
+     */
+    private void write() {
+        CharBuffer chars = CharBuffer.wrap(frame);
+        encoder.reset();
+        bytes.clear();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isOverflow()) {
+                bytes = ByteBuffer.allocate(bytes.capacity() * 2).put(bytes.flip());
+            } else {
+                break;
+            }
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            bytes = ByteBuffer.allocate(bytes.capacity() * 2).put(bytes.flip());
+        }
+        out.write(bytes.array(), 0, bytes.position());
+        out.flush();
+    }
+
+}
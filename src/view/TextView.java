@@ -1,21 +1,39 @@
 package view;
 
 import maze.*;
+
+import java.util.function.Consumer;
+
 import static view.Ansi.*;
 
 /**
  * A view for displaying the maze to the console.
+ * <p>
+ * The maze is drawn by a {@link TerminalRenderer}, which only redraws the cells each move
+ * changed when the console understands ANSI escape codes. Mazes too large for the console are
+ * shown through a window centred on the player. The size of the console is taken from the
+ * {@code LINES} and {@code COLUMNS} environment variables (which most shells set, but may need
+ * to be exported), or assumed to be {@value #DEFAULT_TERM_ROWS} x {@value #DEFAULT_TERM_COLS}.
  */
 public class TextView extends View<String> {
 
     private static final String CONGRATULATIONS_FORMATTED = colour(CONGRATULATIONS, GREEN);
     private static final String USER_PROMPT =
-            "Enter a direction to move %s or type %s to autosolve: "
-            .formatted(colour("(W, A, S or D)", BLUE), colour("solve", BLUE));
+            "Enter a direction to move %s, type %s for a hint or type %s to autosolve: "
+            .formatted(colour("(W, A, S or D)", BLUE), colour("hint", BLUE),
+                    colour("solve [bfs|astar|bidirectional|parallel|junction]", BLUE));
     private static final String INVALID_DIRECTION =
             colour("Invalid direction, please try again.", RED);
     private static final String WALL_ERROR =
             colour("Could not move in the given direction as there was a wall.", RED);
+    /** The number of lines in the console if the {@code LINES} variable isn't set. */
+    private static final int DEFAULT_TERM_ROWS = 24;
+    /** The number of columns in the console if the {@code COLUMNS} variable isn't set. */
+    private static final int DEFAULT_TERM_COLS = 80;
+
+    private final TerminalRenderer renderer;
+    /** The number of columns in the console. */
+    private final int termCols;
 
     /**
      * A utility class for maze emoji.
@@ -44,10 +62,6 @@ public class TextView extends View<String> {
         cellAppearance.put(Cell.WALL, Emoji.WALL);
         cellAppearance.put(Cell.START, Emoji.START);
         cellAppearance.put(Cell.END, Emoji.END);
-        appearanceView = new String[maze.getNumRows()][maze.getNumCols()];
-        maze.forEachPos(pos -> {
-            appearanceView[pos.getRow()][pos.getCol()] = cellAppearance.get(maze.getCell(pos));
-        });
 
         // Special appearances
         playerAppearance = Emoji.PLAYER;
@@ -55,46 +69,124 @@ public class TextView extends View<String> {
         visitedAppearance = Emoji.TRACKED;
         backtrackedAppearance = Emoji.BACKTRACKED;
 
+        // Renderer
+        termCols = sizeFromEnv("COLUMNS", DEFAULT_TERM_COLS);
+        boolean ansi = System.console() != null && !"dumb".equals(System.getenv("TERM"));
+        renderer = new TerminalRenderer(System.out, ansi, maze.getNumRows(), maze.getNumCols(),
+                sizeFromEnv("LINES", DEFAULT_TERM_ROWS), termCols);
+
+    }
+
+    /**
+     * Gets the size of the console from an environment variable.
+     * @param name The name of the variable.
+     * @param defaultSize The size if the variable isn't set or isn't a positive number.
+     * @return The size.
+     */
+    private static int sizeFromEnv(String name, int defaultSize) {
+        try {
+            int size = Integer.parseInt(System.getenv(name));
+            return size > 0 ? size : defaultSize;
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
+    }
+
+    @Override
+    public void update() {
+        followUser();
+        super.update();
+        renderer.flush();
     }
 
     @Override
-    public void updateAt(Position pos, String appearance) {
-        System.out.print(appearance);
-        if (pos.getCol() + 1 == maze.getNumCols()) {
-            // Goes to a new line when the end of a row has been reached
-            System.out.println();
+    public void updateChanged() {
+        if (followUser()) {
+            // Every cell in the window has moved
+            update();
+        } else {
+            super.updateChanged();
+            renderer.flush();
         }
     }
 
+    @Override
+    protected void forEachVisiblePos(Consumer<Position> action) {
+        for (int row = 0; row < renderer.getWindowRows(); row++) {
+            for (int col = 0; col < renderer.getWindowCols(); col++) {
+                action.accept(Position.of(renderer.getFirstRow() + row,
+                        renderer.getFirstCol() + col));
+            }
+        }
+    }
+
+    /**
+     * Moves the window onto the user if they are near its edge.
+     * @return Whether the window moved.
+     */
+    private boolean followUser() {
+        Position user = maze.positionOf(maze.getUserIndex());
+        return renderer.follow(user.getRow(), user.getCol());
+    }
+
+    @Override
+    public void updateAt(Position pos, String appearance) {
+        renderer.set(pos.getRow(), pos.getCol(), appearance);
+    }
+
+    /**
+     * Prints a line below the maze.
+     * @param text The line to print.
+     */
+    private void println(String text) {
+        renderer.reserveLines(1 + visibleLength(text) / termCols);
+        System.out.println(text);
+    }
+
     @Override
     public void congratulate() {
-        System.out.println(CONGRATULATIONS_FORMATTED);
+        println(CONGRATULATIONS_FORMATTED);
     }
 
     @Override
     public void warnInvalidDirection() {
-        System.out.println(INVALID_DIRECTION);
+        println(INVALID_DIRECTION);
     }
 
     @Override
     public void warnWallInTheWay() {
-        System.out.println(WALL_ERROR);
+        println(WALL_ERROR);
     }
 
     @Override
     public void warnUnsolveable() {
-        System.out.println(colour(UNSOLVEABLE, RED));
+        println(colour(UNSOLVEABLE, RED));
     }
 
     @Override
     public void autoSolverSucceeded() {
-        System.out.println(colour(AUTOSOLVED, BLUE));
+        println(colour(AUTOSOLVED, BLUE));
+    }
+
+    @Override
+    public void showHint(Direction dir, int distance) {
+        if (dir == null) {
+            println(colour(NO_HINT, RED));
+        } else {
+            println(colour(HINT.formatted(dir.name().toLowerCase(), distance), BLUE));
+        }
+    }
+
+    @Override
+    public void warnUnknownSolver(String name) {
+        println(colour(UNKNOWN_SOLVER.formatted(name), RED));
     }
 
     /**
      * Prompts the user to enter a direction.
      */
     public void prompt() {
+        renderer.reserveLines(1 + visibleLength(USER_PROMPT) / termCols);
         System.out.print(USER_PROMPT);
     }
 
@@ -0,0 +1,183 @@
+package view;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A least recently used cache of square tiles of a maze, each drawn at a zoom level of
+ * {@code 2^zoom} pixels per cell.
+ * <p>
+ * Each tile is {@value #TILE_PIXELS} pixels across, so drawing the visible part of a maze
+ * only touches the few tiles that cover the view, however large the maze is. Tiles are drawn
+ * from the colour of each cell as it is needed, so no colours are kept for cells outside the
+ * cached tiles. At negative zoom levels each pixel is the average colour of the
+ * {@code 2^-zoom x 2^-zoom} cells it covers. A changed cell is drawn straight into every cached
+ * tile containing it, rather than the tiles being drawn again.
+ */
+class TileCache {
+
+    /** The width/height of each tile in pixels. */
+    static final int TILE_PIXELS = 256;
+
+    /** The colour of any part of a tile past the edge of the maze. */
+    private final int background;
+    /** Gets the colour of the cell at a row and column. */
+    private final IntBinaryOperator colours;
+    private final int numRows;
+    private final int numCols;
+    /** The lowest zoom level that tiles are drawn at. */
+    private final int minZoom;
+    /** The highest zoom level that tiles are drawn at. */
+    private final int maxZoom;
+    /** The cached tiles by key (see {@link #keyOf}), least recently used first. Only
+     * {@link #get} counts as a use, so drawing changed cells doesn't keep tiles cached. */
+    private final LinkedHashMap<Long, BufferedImage> tiles;
+
+    /**
+     * Creates a new empty tile cache.
+     * @param capacity The most tiles to keep (the least recently used tile is dropped when a
+     *                 new tile is drawn after this many).
+     * @param colours Gets the colour of the cell at a row and column.
+     * @param numRows The number of rows in the maze.
+     * @param numCols The number of columns in the maze.
+     * @param minZoom The lowest zoom level that tiles are drawn at (at most 0).
+     * @param maxZoom The highest zoom level that tiles are drawn at.
+     * @param background The colour of any part of a tile past the edge of the maze.
+     */
+    TileCache(int capacity, IntBinaryOperator colours, int numRows, int numCols, int minZoom,
+              int maxZoom, int background) {
+        this.colours = colours;
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.background = background;
+        this.tiles = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets a tile, drawing it if it isn't cached, and marks it as the most recently used.
+     * @param zoom The zoom level, from the lowest to the highest zoom level.
+     * @param tileRow The row of the tile (covering rows from {@code tileRow * cellsPerTile}).
+     * @param tileCol The column of the tile.
+     * @return The tile.
+     */
+    BufferedImage get(int zoom, int tileRow, int tileCol) {
+        long key = keyOf(zoom, tileRow, tileCol);
+        BufferedImage tile = tiles.remove(key);
+        if (tile == null) {
+            tile = new BufferedImage(TILE_PIXELS, TILE_PIXELS, BufferedImage.TYPE_INT_RGB);
+            int[] pixels = MazePyramid.pixels(tile);
+            Arrays.fill(pixels, background);
+            if (zoom >= 0) {
+                int cellsPerTile = cellsPerTile(zoom);
+                int lastRow = (int) Math.min(numRows, (long) (tileRow + 1) * cellsPerTile);
+                int lastCol = (int) Math.min(numCols, (long) (tileCol + 1) * cellsPerTile);
+                for (int row = tileRow * cellsPerTile; row < lastRow; row++) {
+                    for (int col = tileCol * cellsPerTile; col < lastCol; col++) {
+                        draw(pixels, zoom, row, col);
+                    }
+                }
+            } else {
+                int shift = -zoom;
+                long firstRow = (long) tileRow * cellsPerTile(zoom);
+                long firstCol = (long) tileCol * cellsPerTile(zoom);
+                int height = (int) Math.min(TILE_PIXELS, MazePyramid.levelSize(
+                        (int) (numRows - firstRow), shift));
+                int width = (int) Math.min(TILE_PIXELS, MazePyramid.levelSize(
+                        (int) (numCols - firstCol), shift));
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        pixels[y * TILE_PIXELS + x] = MazePyramid.average(colours,
+                                firstRow + ((long) y << shift), firstCol + ((long) x << shift),
+                                1 << shift, numRows, numCols);
+                    }
+                }
+            }
+        }
+        // Reinserting the tile makes it the most recently used
+        tiles.put(key, tile);
+        return tile;
+    }
+
+    /**
+     * Draws a changed cell into every cached tile containing it, without changing which tiles
+     * were used most recently.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    void cellChanged(int row, int col) {
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            int cellsPerTile = cellsPerTile(zoom);
+            BufferedImage tile = tiles.get(keyOf(zoom, row / cellsPerTile, col / cellsPerTile));
+            if (tile == null) {
+                continue;
+            }
+            if (zoom >= 0) {
+                draw(MazePyramid.pixels(tile), zoom, row, col);
+            } else {
+                int shift = -zoom;
+                int x = (col % cellsPerTile) >> shift;
+                int y = (row % cellsPerTile) >> shift;
+                MazePyramid.pixels(tile)[y * TILE_PIXELS + x] = MazePyramid.average(colours,
+                        (long) (row >> shift) << shift, (long) (col >> shift) << shift,
+                        1 << shift, numRows, numCols);
+            }
+        }
+    }
+
+    /**
+     * Drops every tile (e.g. after every cell has changed).
+     */
+    void clear() {
+        tiles.clear();
+    }
+
+    /**
+     * Gets the number of cells along each side of a tile.
+     * @param zoom The zoom level.
+     * @return The number of rows/columns covered by each tile.
+     */
+    static int cellsPerTile(int zoom) {
+        return zoom >= 0 ? TILE_PIXELS >> zoom : TILE_PIXELS << -zoom;
+    }
+
+    /**
+     * Draws a cell into a tile at a zoom level of at least 0.
+     * @param pixels The pixels of the tile containing the cell.
+     * @param zoom The zoom level of the tile.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    private void draw(int[] pixels, int zoom, int row, int col) {
+        int cellPixels = 1 << zoom;
+        int cellsPerTile = cellsPerTile(zoom);
+        int x = (col % cellsPerTile) << zoom;
+        int y = (row % cellsPerTile) << zoom;
+        int colour = colours.applyAsInt(row, col);
+        for (int line = y; line < y + cellPixels; line++) {
+            Arrays.fill(pixels, line * TILE_PIXELS + x, line * TILE_PIXELS + x + cellPixels,
+                    colour);
+        }
+    }
+
+    /**
+     * Gets the key of a tile in the cache.
+     * @param zoom The zoom level.
+     * @param tileRow The row of the tile.
+     * @param tileCol The column of the tile.
+     * @return A key unique to the tile.
+     */
+    private static long keyOf(int zoom, int tileRow, int tileCol) {
+        return (long) (zoom & 0xFF) << 56 | (long) tileRow << 28 | tileCol;
+    }
+
+}
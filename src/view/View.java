@@ -1,11 +1,13 @@
 package view;
 
 import maze.Cell;
+import maze.Direction;
 import maze.Maze;
 import maze.Position;
 
 import java.awt.*;
 import java.util.EnumMap;
+import java.util.function.Consumer;
 
 import static view.Ansi.BLUE;
 import static view.Ansi.colour;
@@ -22,12 +24,14 @@ public abstract class View<T> {
     protected static final String UNSOLVEABLE = "The autosolver failed to solve this maze.";
     protected static final String AUTOSOLVED =
             "The autosolver successfully found the end of the maze.";
+    protected static final String HINT = "Move %s (%s steps from the end).";
+    protected static final String NO_HINT = "The end can't be reached from here.";
+    protected static final String UNKNOWN_SOLVER = "Unknown autosolver \"%s\". "
+            + "Choose from bfs, astar, bidirectional, parallel or junction.";
     protected Maze maze;
     private static final String START_MSG = colour("%nNow viewing: %s%n%n", BLUE);
     /** The appearance of each cell type in this view. */
     protected final EnumMap<Cell, T> cellAppearance;
-    /** The appearance of this view at each row and column. */
-    protected T[][] appearanceView;
     /** How a cell should appear when the player is at that cell. */
     protected T playerAppearance;
     /** How the start cell should appear. */
@@ -51,24 +55,56 @@ public abstract class View<T> {
     }
 
     /**
-     * Updates the view.
+     * Updates every cell of the view. This is used when the maze is first displayed and after
+     * it is autosolved, when any cell may have changed.
      */
     public void update() {
-        maze.forEachPos(pos -> {
-            T appearance;
-            if (maze.isUserPos(pos)) {
-                appearance = playerAppearance;
-            } else if (maze.isStartPos(pos)) {
-                appearance = startAppearance;
-            } else if (maze.wasVisited(pos)) {
-                appearance = visitedAppearance;
-            } else if (maze.wasBacktracked(pos)) {
-                appearance = backtrackedAppearance;
-            } else {
-                appearance = pos.select(appearanceView);
-            }
-            updateAt(pos, appearance);
+        // Forgets the cells changed by earlier moves, since they are all redrawn anyway
+        maze.drainChangedCells(index -> { });
+        forEachVisiblePos(pos -> updateAt(pos, appearanceAt(pos)));
+    }
+
+    /**
+     * Performs an action on each position that this view displays. This is every position in
+     * the maze unless the view only displays part of it.
+     * @param action The action to perform.
+     */
+    protected void forEachVisiblePos(Consumer<Position> action) {
+        maze.forEachPos(action);
+    }
+
+    /**
+     * Updates only the cells changed since the view was last updated (e.g. the two or three
+     * cells changed by a move), falling back to updating every cell if the maze doesn't know
+     * which cells changed.
+     */
+    public void updateChanged() {
+        boolean recorded = maze.drainChangedCells(index -> {
+            Position pos = maze.positionOf(index);
+            updateAt(pos, appearanceAt(pos));
         });
+        if (!recorded) {
+            update();
+        }
+    }
+
+    /**
+     * Gets how the view should appear at a given position, given the player's route so far.
+     * @param pos The position in the maze.
+     * @return The appearance of that position.
+     */
+    protected T appearanceAt(Position pos) {
+        long index = maze.indexOf(pos);
+        if (maze.isUserPos(pos)) {
+            return playerAppearance;
+        } else if (maze.isStartPos(pos)) {
+            return startAppearance;
+        } else if (maze.wasVisited(index)) {
+            return visitedAppearance;
+        } else if (maze.wasBacktracked(index)) {
+            return backtrackedAppearance;
+        }
+        return cellAppearance.get(maze.getCell(index));
     }
 
     /**
@@ -103,4 +139,17 @@ public abstract class View<T> {
      */
     public abstract void autoSolverSucceeded();
 
+    /**
+     * Tells the user which way to move to follow a shortest route to the end.
+     * @param dir The direction to move in, or {@code null} if the end can't be reached.
+     * @param distance The number of steps from the user to the end.
+     */
+    public abstract void showHint(Direction dir, int distance);
+
+    /**
+     * Alerts the user that there is no autosolver with the name they gave.
+     * @param name The name the user gave.
+     */
+    public abstract void warnUnknownSolver(String name);
+
 }
@@ -0,0 +1,151 @@
+package controller;
+
+import exceptions.MazeUnsolveableException;
+import maze.Maze;
+import maze.MazeSearch;
+import maze.MazeSolver;
+import maze.SolvedPath;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import static org.junit.Assert.*;
+
+public class AutoSolverTest {
+
+    /** The longest to wait for the autosolver. */
+    private static final long TIMEOUT_SECONDS = 30;
+
+    /**
+     * A search that blocks each step until it is released, so the autosolver can be cancelled
+     * while a step is running.
+     */
+    private static class GatedSearch implements MazeSearch {
+
+        private final MazeSearch search;
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger numSteps = new AtomicInteger();
+        private volatile boolean returned;
+
+        private GatedSearch(MazeSearch search) {
+            this.search = search;
+        }
+
+        @Override
+        public boolean advance(int budget, LongConsumer onReached) {
+            numSteps.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            boolean finished = search.advance(budget, onReached);
+            returned = true;
+            return finished;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return search.isFinished();
+        }
+
+        @Override
+        public void cancel() {
+            search.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return search.isCancelled();
+        }
+
+        @Override
+        public long getExpanded() {
+            return search.getExpanded();
+        }
+
+        @Override
+        public int getFrontierSize() {
+            return search.getFrontierSize();
+        }
+
+        @Override
+        public SolvedPath getResult() throws MazeUnsolveableException {
+            return search.getResult();
+        }
+
+    }
+
+    /**
+     * Ensures that a search that isn't cancelled finds a route to the end, and that the done
+     * callback runs once on the event dispatch thread.
+     */
+    @Test
+    public void searchFinishes() throws Exception {
+        Maze maze = Maze.generate(201, 1L);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger numDone = new AtomicInteger();
+        boolean[] onEventThread = new boolean[1];
+        AutoSolver autoSolver = new AutoSolver(maze, MazeSolver.named("astar"), progress -> { },
+                finished -> {
+                    onEventThread[0] = SwingUtilities.isEventDispatchThread();
+                    numDone.incrementAndGet();
+                    done.countDown();
+                });
+        autoSolver.execute();
+        assertTrue("The autosolver should finish",
+                done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertTrue("The done callback should run on the event dispatch thread",
+                onEventThread[0]);
+        assertEquals("The done callback should run once", 1, numDone.get());
+        assertFalse("The autosolver wasn't cancelled", autoSolver.isCancelRequested());
+        SolvedPath route = autoSolver.get();
+        assertNotNull("A route should be found", route);
+        maze.follow(route);
+        assertTrue("The route should reach the end", maze.endFound());
+    }
+
+    /**
+     * Ensures that cancelling stops the search at its next check, and that the done callback
+     * only runs once the search has returned.
+     */
+    @Test
+    public void searchCancelled() throws Exception {
+        Maze maze = Maze.generate(301, 1L);
+        GatedSearch search = new GatedSearch(MazeSolver.named("bfs").start(maze));
+        CountDownLatch done = new CountDownLatch(1);
+        boolean[] returnedBeforeDone = new boolean[1];
+        AutoSolver autoSolver = new AutoSolver(maze, solved -> search, progress -> { },
+                finished -> {
+                    returnedBeforeDone[0] = search.returned;
+                    done.countDown();
+                });
+        autoSolver.execute();
+        assertTrue("The search should start",
+                search.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        autoSolver.requestCancel();
+        // Runs everything already queued on the event dispatch thread
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals("The done callback shouldn't run while the search is in a step", 1,
+                done.getCount());
+
+        search.release.countDown();
+        assertTrue("The autosolver should stop", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue("The done callback should only run once the search has returned",
+                returnedBeforeDone[0]);
+        assertTrue("The autosolver should be cancelled", autoSolver.isCancelRequested());
+        assertNull("A cancelled autosolver has no route", autoSolver.get());
+        assertTrue("The search should be cancelled", search.isCancelled());
+        assertEquals("The search should stop after the step it was in", 1,
+                search.numSteps.get());
+    }
+
+}
@@ -0,0 +1,165 @@
+package controller;
+
+import io.BinaryFileLoader;
+import maze.EllerGenerator;
+import maze.Maze;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MazePoolTest {
+
+    /** The longest a new random game may wait for its maze. */
+    private static final long MAX_TAKE_MILLIS = 50;
+    /** The longest to wait for a pool to fill in the background. */
+    private static final long FILL_TIMEOUT_MILLIS = 60_000;
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("spares");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Path file : spareFiles()) {
+            Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * Gets the files in the spare directory.
+     * @return The files, in name order.
+     */
+    private List<Path> spareFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    /**
+     * Waits until a pool has a given number of mazes ready.
+     * @param pool The pool to wait for.
+     * @param size The size of the mazes.
+     * @param count The number of mazes to wait for.
+     */
+    private static void awaitAvailable(MazePool pool, int size, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + FILL_TIMEOUT_MILLIS;
+        while (pool.available(size) < count) {
+            assertTrue("The pool should fill in the background",
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Takes a maze from a pool, checking that it is taken quickly.
+     * @param pool The pool to take from.
+     * @param size The size of the maze.
+     * @return The maze.
+     */
+    private static Maze timedTake(MazePool pool, int size) {
+        long start = System.nanoTime();
+        Maze maze = pool.take(size);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Taking a ready maze took %s ms".formatted(millis), millis < MAX_TAKE_MILLIS);
+        assertEquals("The maze should have the requested size", size, maze.getNumRows());
+        return maze;
+    }
+
+    /**
+     * Ensures that prepared mazes are taken instantly, and that each maze is only taken once.
+     */
+    @Test
+    public void memoryPool() throws Exception {
+        int size = 1001;
+        MazePool pool = new MazePool(2);
+        pool.prepare(size);
+        awaitAvailable(pool, size, 2);
+        Maze first = timedTake(pool, size);
+        Maze second = timedTake(pool, size);
+        assertNotEquals("Each maze should only be taken once", first.getContentHash(),
+                second.getContentHash());
+        awaitAvailable(pool, size, 2);
+        assertEquals("The pool should refill up to its capacity", 2, pool.available(size));
+    }
+
+    /**
+     * Ensures that spare mazes saved by one pool are taken by the next, and deleted once
+     * taken.
+     */
+    @Test
+    public void savedSpares() throws Exception {
+        int size = 301;
+        MazePool earlier = new MazePool(2, dir);
+        earlier.prepare(size);
+        awaitAvailable(earlier, size, 2);
+        List<Path> saved = spareFiles();
+        assertEquals("Each spare should be saved", 2, saved.size());
+        Set<Long> savedHashes = new HashSet<>();
+        for (Path file : saved) {
+            savedHashes.add(new BinaryFileLoader().loadMaze(file).getContentHash());
+        }
+
+        MazePool later = new MazePool(2, dir);
+        assertEquals("Saved spares should be available straight away", 2,
+                later.available(size));
+        Maze maze = timedTake(later, size);
+        assertTrue("The maze should be one of the saved spares",
+                savedHashes.contains(maze.getContentHash()));
+        assertFalse("A taken spare should be deleted", spareFiles().containsAll(saved));
+        awaitAvailable(later, size, 2);
+    }
+
+    /**
+     * Ensures that damaged spares are skipped and deleted.
+     */
+    @Test
+    public void damagedSpares() throws Exception {
+        int size = 21;
+        Path damaged = dir.resolve("maze21-damaged" + BinaryFileLoader.EXTENSION);
+        Files.writeString(damaged, "not a maze");
+        MazePool pool = new MazePool(1, dir);
+        Maze maze = pool.take(size);
+        assertEquals("A maze should be generated instead", size, maze.getNumRows());
+        assertFalse("The damaged spare should be deleted", Files.exists(damaged));
+        awaitAvailable(pool, size, 1);
+    }
+
+    /**
+     * Ensures that spares of the wrong width are skipped and deleted, and that temporary files
+     * left behind by earlier runs are deleted without touching ones still being written.
+     */
+    @Test
+    public void leftoverFiles() throws Exception {
+        int size = 21;
+        Path wide = dir.resolve("maze21-wide" + BinaryFileLoader.EXTENSION);
+        BinaryFileLoader.write(new EllerGenerator(size, size + 2, 1), wide);
+        Path stale = Files.writeString(dir.resolve("maze21-stale.tmp"), "partly written");
+        Files.setLastModifiedTime(stale,
+                FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        Path writing = Files.writeString(dir.resolve("maze21-writing.tmp"), "partly written");
+
+        MazePool pool = new MazePool(1, dir);
+        Maze maze = pool.take(size);
+        assertEquals("A square maze should be generated instead", size, maze.getNumCols());
+        assertFalse("The spare of the wrong width should be deleted", Files.exists(wide));
+        assertFalse("Stale temporary files should be deleted", Files.exists(stale));
+        assertTrue("New temporary files may still be being written", Files.exists(writing));
+        Files.delete(writing);
+        awaitAvailable(pool, size, 1);
+    }
+
+}
@@ -0,0 +1,144 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.SolutionCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BatchLoaderTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws Exception {
+        // Copies every fixture so the batch contains both valid and invalid files
+        dir = Files.createTempDirectory("mazes");
+        try (Stream<Path> fixtures = Files.list(File.resolve("txt"))) {
+            for (Path fixture : fixtures.toList()) {
+                Files.copy(fixture, dir.resolve(fixture.getFileName()));
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    /**
+     * Ensures that every file in a directory is loaded, with the same outcome as loading it on
+     * its own.
+     */
+    @Test
+    public void loadDirectory() throws Exception {
+        Map<String, Class<?>> errors = new HashMap<>();
+        BatchLoader.Summary summary = new BatchLoader(3).loadAll(dir, result -> {
+            String name = result.getPath().getFileName().toString();
+            assertNull("%s should only be loaded once".formatted(name),
+                    errors.put(name, result.isValid() ? null : result.getError().getClass()));
+            assertEquals("%s should have a maze only if it's valid".formatted(name),
+                    result.isValid(), result.getMaze() != null);
+        });
+
+        assertEquals("All fixtures should be loaded", 14, summary.getNumFiles());
+        assertEquals("All fixtures should be reported", 14, errors.size());
+        assertNull("maze001.txt should be valid", errors.get("maze001.txt"));
+        assertNull("unsolveable.txt should be valid", errors.get("unsolveable.txt"));
+        assertEquals("Missing rows should be reported", MazeSizeMissmatchException.class,
+                errors.get("incorrect_dimensions.txt"));
+        assertEquals("Open walls should be reported", MazeMalformedException.class,
+                errors.get("invalid_wall.txt"));
+        assertEquals("Empty files should be reported", IllegalArgumentException.class,
+                errors.get("empty.txt"));
+        long numFailed = errors.values().stream().filter(error -> error != null).count();
+        assertEquals("Invalid files should be counted", numFailed, summary.getNumFailed());
+    }
+
+    /**
+     * Ensures that files written next to mazes (solutions and temporary files) are never
+     * loaded as mazes, that caching a maze writes nothing next to it, and that binary mazes are
+     * loaded.
+     */
+    @Test
+    public void sidecarsSkipped() throws Exception {
+        int numMazes = new BatchLoader(2).loadAll(dir, result -> { }).getNumFiles();
+        Path cacheDir = Files.createTempDirectory("caches");
+        CachedFileLoader cached = new CachedFileLoader(cacheDir);
+        cached.loadMaze(dir.resolve("maze001.txt"));
+        Files.delete(cached.cacheOf(dir.resolve("maze001.txt")));
+        Files.delete(cacheDir);
+        Files.writeString(dir.resolve("maze002.txt" + SolutionCache.EXTENSION), "0 R2");
+        Files.writeString(dir.resolve("maze003.txt.solution123.tmp"), "partly written");
+        Files.writeString(dir.resolve("notes.md"), "not a maze");
+
+        BatchLoader.Summary summary = new BatchLoader(2).loadAll(dir, result -> { });
+        assertEquals("Sidecars shouldn't be loaded", numMazes, summary.getNumFiles());
+        assertEquals("Sidecars shouldn't be loaded even when they match the glob", numMazes,
+                new BatchLoader(2).loadAll(dir, "*", result -> { }).getNumFiles() - 1);
+
+        BinaryFileLoader.write(new FileLoader().loadMaze(dir.resolve("maze001.txt")),
+                dir.resolve("maze001" + BinaryFileLoader.EXTENSION));
+        List<BatchLoader.Result> results = new ArrayList<>();
+        summary = new BatchLoader(2).loadAll(dir, "*" + BinaryFileLoader.EXTENSION, results::add);
+        assertEquals("Binary mazes should be loaded", 1, summary.getNumFiles());
+        assertTrue("Binary mazes should be valid", results.get(0).isValid());
+    }
+
+    /**
+     * Ensures that only files matching a glob are loaded, and that the totals add up.
+     */
+    @Test
+    public void loadGlob() throws Exception {
+        List<Path> loaded = new ArrayList<>();
+        BatchLoader.Summary summary = new BatchLoader(2).loadAll(dir, "maze00*.txt",
+                result -> loaded.add(result.getPath()));
+        loaded.sort(null);
+        assertEquals("Only matching files should be loaded", List.of(dir.resolve("maze001.txt"),
+                dir.resolve("maze002.txt"), dir.resolve("maze003.txt")), loaded);
+        assertEquals("No matching file is invalid", 0, summary.getNumFailed());
+        long bytes = 0;
+        for (Path file : loaded) {
+            bytes += Files.size(file);
+        }
+        assertEquals("The total size should include every file", bytes, summary.getBytes());
+        assertTrue("Throughput should be reported",
+                summary.getFilesPerSecond() > 0 && summary.getMegabytesPerSecond() > 0);
+    }
+
+    /**
+     * Ensures that more files than can be in flight at once are all loaded, and that missing
+     * files are reported rather than stopping the batch.
+     */
+    @Test
+    public void manyFiles() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            files.add(dir.resolve("maze002.txt"));
+        }
+        files.add(dir.resolve("missing.txt"));
+        List<BatchLoader.Result> results = new ArrayList<>();
+        BatchLoader.Summary summary = new BatchLoader(1).loadAll(files, results::add);
+        assertEquals("Every file should have a result", 51, results.size());
+        assertEquals("Only the missing file should be invalid", 1, summary.getNumFailed());
+        assertThrows("Concurrency must be positive", IllegalArgumentException.class,
+                () -> new BatchLoader(0));
+    }
+
+}
@@ -0,0 +1,141 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import maze.EllerGenerator;
+import maze.Maze;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BinaryFileLoaderTest {
+
+    private Path binary;
+    private Path text;
+
+    @Before
+    public void setUp() throws Exception {
+        binary = Files.createTempFile("maze", ".bin");
+        text = Files.createTempFile("maze", ".txt");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(binary);
+        Files.deleteIfExists(text);
+    }
+
+    /**
+     * Ensures that converting a text maze to the binary format and back keeps the same maze.
+     */
+    @Test
+    public void roundTrip() throws Exception {
+        for (String filename : new String[]{"txt/maze001.txt", "txt/maze002.txt",
+                "txt/maze003.txt", "txt/abnormal_end_points.txt"}) {
+            Path original = File.resolve(filename);
+            MazeConverter.textToBinary(original, binary);
+            Maze expected = new FileLoader().loadMaze(original);
+            Maze loaded = new BinaryFileLoader().loadMaze(binary);
+            assertEquals("%s should have the same cells in binary".formatted(filename),
+                    expected.getContentHash(), loaded.getContentHash());
+            assertEquals("%s should have the same start in binary".formatted(filename),
+                    expected.getStartIndex(), loaded.getStartIndex());
+
+            MazeConverter.binaryToText(binary, text);
+            assertEquals("%s should convert back to the same maze".formatted(filename),
+                    expected.getContentHash(), new FileLoader().loadMaze(text).getContentHash());
+        }
+    }
+
+    /**
+     * Ensures that a large maze takes about 8 times less space in the binary format.
+     */
+    @Test
+    public void compactFiles() throws Exception {
+        MazeConverter.writeText(Maze.generate(201), text);
+        MazeConverter.textToBinary(text, binary);
+        assertTrue("The binary file should be at least 7 times smaller",
+                Files.size(binary) * 7 < Files.size(text));
+    }
+
+    /**
+     * Ensures that mazes generated a row at a time are written the same way in the text and
+     * binary formats.
+     */
+    @Test
+    public void streamedMazes() throws Exception {
+        Path runLength = Files.createTempFile("maze", ".rle.gz");
+        try {
+            MazeConverter.writeText(new EllerGenerator(101, 57, 3), text);
+            MazeConverter.writeText(new EllerGenerator(101, 57, 3), runLength);
+            BinaryFileLoader.write(new EllerGenerator(101, 57, 3), binary);
+            Maze expected = new FileLoader().loadMaze(text);
+            assertEquals("The maze should have the given size", 57, expected.getNumCols());
+            assertEquals("Compressed text should hold the same maze", expected.getContentHash(),
+                    new FileLoader().loadMaze(runLength).getContentHash());
+            Maze loaded = new BinaryFileLoader().loadMaze(binary);
+            assertEquals("Binary files should hold the same maze", expected.getContentHash(),
+                    loaded.getContentHash());
+            assertEquals("Binary files should hold the same end", expected.getEndIndex(),
+                    loaded.getEndIndex());
+        } finally {
+            Files.delete(runLength);
+        }
+    }
+
+    /**
+     * Ensures that the binary loader also returns maze data as characters.
+     */
+    @Test
+    public void loadAsCharacters() throws Exception {
+        MazeConverter.textToBinary(File.resolve("txt/maze001.txt"), binary);
+        // Loaders prepend src to filenames, so the temporary file is given relative to it
+        String filename = File.resolve("").toAbsolutePath().relativize(binary).toString();
+        assertArrayEquals("Characters loaded from binary should match the text file",
+                new FileLoader().load("txt/maze001.txt"), new BinaryFileLoader().load(filename));
+    }
+
+    /**
+     * Ensures that damaged, truncated and non-maze files are rejected.
+     */
+    @Test
+    public void invalidFiles() throws Exception {
+        MazeConverter.textToBinary(File.resolve("txt/maze002.txt"), binary);
+        byte[] valid = Files.readAllBytes(binary);
+
+        byte[] damaged = valid.clone();
+        damaged[damaged.length - 2] ^= 0x10;
+        Files.write(binary, damaged);
+        assertThrows("A damaged bitmap should fail the checksum", MazeMalformedException.class,
+                () -> new BinaryFileLoader().loadMaze(binary));
+
+        Files.write(binary, Arrays.copyOf(valid, valid.length - 1));
+        assertThrows("A truncated bitmap should be rejected", MazeSizeMissmatchException.class,
+                () -> new BinaryFileLoader().loadMaze(binary));
+
+        char[][] openEdge = new FileLoader().load("txt/maze001.txt");
+        openEdge[3][6] = ' ';
+        BinaryFileLoader.write(new Maze(openEdge), binary);
+        assertThrows("Edges must be walls", MazeMalformedException.class,
+                () -> new BinaryFileLoader().loadMaze(binary));
+
+        Files.writeString(binary, "7 7\n#######\n");
+        assertThrows("Text files should be rejected", IllegalArgumentException.class,
+                () -> new BinaryFileLoader().loadMaze(binary));
+
+        Files.write(binary, new byte[0]);
+        assertThrows("Empty files should be rejected", IllegalArgumentException.class,
+                () -> new BinaryFileLoader().loadMaze(binary));
+
+        assertThrows("Missing files should be reported", FileNotFoundException.class,
+                () -> new BinaryFileLoader().loadMaze("abc/def.invalid"));
+    }
+
+}
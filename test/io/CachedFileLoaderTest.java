@@ -0,0 +1,188 @@
+package io;
+
+import exceptions.MazeMalformedException;
+import maze.Cell;
+import maze.Maze;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class CachedFileLoaderTest {
+
+    /** The position of the first byte of the wall bitmap in a cache file. */
+    private static final int BITMAP_OFFSET = 32 + 36;
+
+    private Path dir;
+    private Path cacheDir;
+    private Path source;
+    private Path cache;
+    private CachedFileLoader loader;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("mazes");
+        cacheDir = Files.createTempDirectory("caches");
+        source = dir.resolve("maze.txt");
+        loader = new CachedFileLoader(cacheDir);
+        cache = loader.cacheOf(source);
+        Files.copy(File.resolve("txt/maze002.txt"), source);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Path directory : List.of(dir, cacheDir)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Opens an interior wall of the cached maze, so loads that use the cache can be told apart
+     * from loads of the maze file.
+     * @return The index of the opened cell.
+     */
+    private long markCache() throws Exception {
+        Maze maze = new FileLoader().loadMaze(source);
+        long cell = maze.getNumCols() + 2;
+        while (!maze.isWall(cell)) {
+            cell++;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer walls = ByteBuffer.allocate(1);
+            channel.read(walls, BITMAP_OFFSET + cell / 8);
+            walls.put(0, (byte) (walls.get(0) & ~(1 << (cell % 8))));
+            channel.write(walls.rewind(), BITMAP_OFFSET + cell / 8);
+        }
+        return cell;
+    }
+
+    /**
+     * Ensures that loading a maze file creates a cache, and that later loads read the cache.
+     */
+    @Test
+    public void cacheHit() throws Exception {
+        Maze expected = new FileLoader().loadMaze(source);
+        Maze first = loader.loadMaze(source);
+        assertTrue("The cache file should be created", Files.exists(cache));
+        assertEquals("The first load should match the file", expected.getContentHash(),
+                first.getContentHash());
+        Maze second = loader.loadMaze(source);
+        assertEquals("A second load from the cache should match the file",
+                expected.getContentHash(), second.getContentHash());
+
+        long marked = markCache();
+        assertEquals("Unchanged files should be loaded from the cache", Cell.PATH,
+                loader.loadMaze(source).getCell(marked));
+    }
+
+    /**
+     * Ensures that the cache is replaced when the maze file changes, but kept when only its
+     * modified time changes.
+     */
+    @Test
+    public void sourceChanged() throws Exception {
+        loader.loadMaze(source);
+        long marked = markCache();
+        FileTime modified = Files.getLastModifiedTime(source);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(modified.toMillis() + 10_000));
+        assertEquals("Touched files should still be loaded from the cache", Cell.PATH,
+                loader.loadMaze(source).getCell(marked));
+
+        // Swaps the start and end, which keeps the same size
+        Maze original = new FileLoader().loadMaze(source);
+        Files.writeString(source, Files.readString(source).replace('S', '_')
+                .replace('E', 'S').replace('_', 'E'));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(modified.toMillis() + 20_000));
+        Maze loaded = loader.loadMaze(source);
+        assertEquals("Changed files should be loaded again", original.getEndIndex(),
+                loaded.getStartIndex());
+        assertEquals("Changed files should be loaded again", original.getStartIndex(),
+                loaded.getEndIndex());
+        assertEquals("The new cache should be used next time", original.getEndIndex(),
+                loader.loadMaze(source).getStartIndex());
+    }
+
+    /**
+     * Ensures that invalid files are rejected without creating a cache, and that damaged caches
+     * are replaced.
+     */
+    @Test
+    public void invalidFiles() throws Exception {
+        Files.copy(File.resolve("txt/invalid_wall.txt"), source,
+                StandardCopyOption.REPLACE_EXISTING);
+        assertThrows("Invalid files should be rejected", MazeMalformedException.class,
+                () -> loader.loadMaze(source));
+        assertFalse("Invalid files shouldn't be cached", Files.exists(cache));
+
+        Files.copy(File.resolve("txt/maze001.txt"), source,
+                StandardCopyOption.REPLACE_EXISTING);
+        Maze expected = new FileLoader().loadMaze(source);
+        loader.loadMaze(source);
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(cache) - 1);
+        }
+        assertEquals("Damaged caches should be ignored", expected.getContentHash(),
+                loader.loadMaze(source).getContentHash());
+        assertEquals("Damaged caches should be replaced", expected.getContentHash(),
+                loader.loadMaze(source).getContentHash());
+        long marked = markCache();
+        assertEquals("The replaced cache should be used", Cell.PATH,
+                loader.loadMaze(source).getCell(marked));
+    }
+
+    /**
+     * Ensures that caches are kept in the cache directory rather than next to the maze file,
+     * that maze files with the same name in different directories have their own caches, and
+     * that mazes can be loaded without caching them.
+     */
+    @Test
+    public void cachesStoredByPath() throws Exception {
+        loader.loadMaze(source);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals("Nothing should be written next to the maze file", List.of(source),
+                    files.toList());
+        }
+        assertTrue("The cache should be in the cache directory", Files.exists(cache));
+
+        Path otherDir = Files.createTempDirectory("mazes");
+        Path other = otherDir.resolve(source.getFileName());
+        try {
+            Files.copy(File.resolve("txt/maze001.txt"), other);
+            assertNotEquals("Files with the same name should have different caches", cache,
+                    loader.cacheOf(other));
+            assertEquals("Each file should be loaded from its own cache",
+                    new FileLoader().loadMaze(other).getContentHash(),
+                    loader.loadMaze(other).getContentHash());
+            assertEquals("The cache shouldn't depend on how the path is written", cache,
+                    loader.cacheOf(dir.resolve("..").resolve(dir.getFileName())
+                            .resolve(source.getFileName())));
+        } finally {
+            Files.deleteIfExists(other);
+            Files.delete(otherDir);
+        }
+
+        CachedFileLoader uncached = new CachedFileLoader(null);
+        assertNull("Mazes shouldn't have a cache when caching is off", uncached.cacheOf(source));
+        assertEquals("Mazes should still load when caching is off",
+                new FileLoader().loadMaze(source).getContentHash(),
+                uncached.loadMaze(source).getContentHash());
+    }
+
+}
@@ -0,0 +1,87 @@
+package io;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import maze.Cell;
+import maze.Maze;
+import maze.MazeBuilder;
+
+/**
+ * Compares the size and load time of plain, gzipped and run-length encoded maze files.
+ * <p>
+ * Run with {@code java io.CompressedLoadBenchmark [scale] [repeats]}. Each of the
+ * {@code src/txt/maze00*.txt} fixtures is scaled up by turning every cell into a square block of
+ * {@code scale * scale} cells, which keeps the long runs of walls and paths typical of real
+ * mazes.
+ */
+public class CompressedLoadBenchmark {
+
+    /** The extensions of the formats compared. */
+    private static final String[] EXTENSIONS = {".txt", ".txt.gz", ".rle", ".rle.gz"};
+
+    public static void main(String[] args) throws Exception {
+        int scale = args.length > 0 ? Integer.parseInt(args[0]) : 101;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Path dir = Files.createTempDirectory("mazes");
+        System.out.printf("Scale: %d, %d repeats%n", scale, repeats);
+        System.out.printf("%-12s %-8s %14s %10s %10s%n", "fixture", "format", "bytes", "ms",
+                "Mcells/s");
+        try {
+            for (int i = 1; i <= 3; i++) {
+                String fixture = "maze00%s.txt".formatted(i);
+                Maze maze = scaleUp(new FileLoader().loadMaze("txt/" + fixture), scale);
+                for (String extension : EXTENSIONS) {
+                    Path file = dir.resolve("maze" + extension);
+                    MazeConverter.writeText(maze, file);
+                    double ms = time(file, repeats);
+                    System.out.printf("%-12s %-8s %14d %10.1f %10.1f%n", fixture, extension,
+                            Files.size(file), ms, maze.getNumCells() / 1e3 / ms);
+                    Files.delete(file);
+                }
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Gets the best time taken to load a maze file.
+     * @param file The file to load.
+     * @param repeats The number of times to load the file.
+     * @return The fastest time taken, in milliseconds.
+     */
+    private static double time(Path file, int repeats) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            new FileLoader().loadMapped(file);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    /**
+     * Scales a maze up by turning every cell into a square block of cells. The start and end
+     * only fill the top left cell of their blocks, and the rest of those blocks are paths.
+     * @param maze The maze to scale up.
+     * @param scale The width/height of each block (odd, so the dimensions stay odd).
+     * @return The scaled up maze.
+     */
+    static Maze scaleUp(Maze maze, int scale) {
+        MazeBuilder builder = new MazeBuilder(maze.getNumRows() * scale,
+                maze.getNumCols() * scale);
+        for (int row = 0; row < maze.getNumRows() * scale; row++) {
+            for (int col = 0; col < maze.getNumCols() * scale; col++) {
+                Cell cell = maze.getCell((long) (row / scale) * maze.getNumCols() + col / scale);
+                boolean corner = row % scale == 0 && col % scale == 0;
+                if ((cell == Cell.START || cell == Cell.END) && !corner) {
+                    cell = Cell.PATH;
+                }
+                builder.setCell(row, col, cell);
+            }
+        }
+        return builder.build();
+    }
+
+}
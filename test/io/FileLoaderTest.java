@@ -6,13 +6,29 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import maze.Cell;
+import maze.Maze;
+import maze.MazeSolver;
+import maze.Position;
+import org.junit.Assume;
+
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.Assert.*;
 
 public class FileLoaderTest {
 
+    /** The heap that loading, solving and walking a maze of a billion cells must fit in. */
+    private static final long HUGE_MAZE_HEAP_BUDGET = 1536L << 20;
+
     @Before
     public void setUp() throws Exception {
     }
@@ -182,4 +198,237 @@ public class FileLoaderTest {
         testErrorThrown("txt/no_starts.txt", MazeMalformedException.class);
     }
 
+    /**
+     * Ensures that loading a maze in a single pass (from a reader or a mapped file) rejects the
+     * same files as {@link FileLoader#load(String)}, with the same exceptions.
+     */
+    @Test
+    public void singlePassLoadErrors() {
+        String[] filenames = {"abc/def.invalid", "txt/empty.txt", "txt/non_numeric_dimensions.txt",
+                "txt/invalid_dimensions.txt", "txt/incorrect_dimensions.txt",
+                "txt/inconsistent_dimensions.txt", "txt/invalid_char.txt", "txt/invalid_wall.txt",
+                "txt/multiple_starts.txt", "txt/no_starts.txt"};
+        for (String filename : filenames) {
+            Exception expected = assertThrows(Exception.class,
+                    () -> new FileLoader().load(filename));
+            assertThrows("Loading %s in one pass should throw %s".formatted(filename,
+                    expected.getClass().getSimpleName()), expected.getClass(),
+                    () -> new FileLoader().loadMaze(filename));
+            assertThrows("Loading %s from a mapped file should throw %s".formatted(filename,
+                    expected.getClass().getSimpleName()), expected.getClass(),
+                    () -> new FileLoader().loadMapped(filename));
+        }
+    }
+
+    /**
+     * Ensures that loading a maze in a single pass gives the same maze as loading it into an
+     * array.
+     */
+    @Test
+    public void singlePassLoad() throws Exception {
+        Maze expected = new Maze(new FileLoader().load("txt/abnormal_end_points.txt"));
+        Maze loaded = new FileLoader().loadMaze("txt/abnormal_end_points.txt");
+        assertEquals("Both loaders should give the same maze", expected.getContentHash(),
+                loaded.getContentHash());
+        assertEquals("Both loaders should find the same start", expected.getStartIndex(),
+                loaded.getStartIndex());
+        Maze mapped = new FileLoader().loadMapped("txt/abnormal_end_points.txt");
+        assertEquals("Loading a mapped file should give the same maze",
+                expected.getContentHash(), mapped.getContentHash());
+        assertEquals("Loading a mapped file should find the same end", expected.getEndIndex(),
+                mapped.getEndIndex());
+    }
+
+    /**
+     * Ensures that a maze can be loaded from a stream, and that a stream is only read up to its
+     * first invalid byte.
+     */
+    @Test
+    public void streamedLoad() throws Exception {
+        Maze expected = new FileLoader().loadMapped("txt/maze002.txt");
+        try (InputStream in = Files.newInputStream(File.resolve("txt/maze002.txt"))) {
+            assertEquals("Loading from a stream should give the same maze",
+                    expected.getContentHash(), new FileLoader().loadMaze(in, "maze002")
+                            .getContentHash());
+        }
+
+        // A stream that never ends, with an invalid character at the start of its second row
+        int width = 1_000_001;
+        long[] bytesRead = {0};
+        byte[] start = ("11 %s\n%s\n#?".formatted(width, "#".repeat(width))).getBytes();
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                long position = bytesRead[0]++;
+                return position < start.length ? start[(int) position] : '#';
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                for (int i = 0; i < length; i++) {
+                    buffer[offset + i] = (byte) read();
+                }
+                return length;
+            }
+        };
+        assertThrows("The invalid character should be found", IllegalArgumentException.class,
+                () -> new FileLoader().loadMaze(endless, "endless"));
+        assertTrue("Reading should stop soon after the invalid character",
+                bytesRead[0] < start.length + (1 << 20));
+    }
+
+    /**
+     * Ensures that gzipped and run-length encoded maze files load as the same maze as the
+     * plain text file.
+     */
+    @Test
+    public void compressedFiles() throws Exception {
+        for (String extension : new String[]{".txt.gz", ".rle", ".rle.gz"}) {
+            Path file = Files.createTempFile("maze", extension);
+            try {
+                for (int i = 1; i <= 3; i++) {
+                    String filename = "txt/maze00%s.txt".formatted(i);
+                    Maze expected = new FileLoader().loadMaze(filename);
+                    MazeConverter.writeText(expected, file);
+                    assertEquals("%s should load the same from a %s file".formatted(filename,
+                            extension), expected.getContentHash(),
+                            new FileLoader().loadMapped(file).getContentHash());
+                }
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Ensures that run-length encoded rows are decoded, and that malformed runs and corrupt
+     * gzip data are rejected.
+     */
+    @Test
+    public void runLengthRows() throws Exception {
+        Path file = Files.createTempFile("maze", ".rle");
+        Path gzip = Files.createTempFile("maze", ".gz");
+        try {
+            Files.writeString(file, "5 7\n7#\n#S#3 #\n# # #E#\n#5 #\n7#\n");
+            Maze maze = new FileLoader().loadMaze(file);
+            assertEquals("Runs should be expanded to the full width", 7, maze.getNumCols());
+            assertEquals("Single characters shouldn't need a run length", Cell.END,
+                    maze.getCell(new Position(2, 5)));
+
+            Files.writeString(file, "5 7\n7#\n#S#3 #\n# # #E#\n#5 #\n7\n");
+            assertThrows("A run length must be followed by a character",
+                    IllegalArgumentException.class, () -> new FileLoader().loadMaze(file));
+            Files.writeString(file, "5 7\n7#\n#S#3 #\n# # #E0#\n#5 #\n7#\n");
+            assertThrows("An explicit run length of zero should be rejected",
+                    IllegalArgumentException.class, () -> new FileLoader().loadMaze(file));
+            Files.writeString(file, "5 7\n8#\n#S#3 #\n# # #E#\n#5 #\n7#\n");
+            assertThrows("Runs past the end of a row should be rejected",
+                    MazeSizeMissmatchException.class, () -> new FileLoader().loadMaze(file));
+
+            Files.writeString(gzip, "not gzip data");
+            assertThrows("Corrupt gzip data should be rejected", IllegalArgumentException.class,
+                    () -> new FileLoader().loadMaze(gzip));
+        } finally {
+            Files.delete(file);
+            Files.delete(gzip);
+        }
+    }
+
+    /**
+     * Ensures that loading a mapped file accepts Windows line endings and a missing line
+     * ending after the last row, and rejects trailing rows.
+     */
+    @Test
+    public void mappedLineEndings() throws Exception {
+        Path file = Files.createTempFile("maze", ".txt");
+        try {
+            Files.writeString(file, "5 5\r\n#####\r\n#S#E#\r\n# # #\r\n#   #\r\n#####");
+            assertEquals("The maze should have 5 columns", 5,
+                    new FileLoader().loadMapped(file).getNumCols());
+            Files.writeString(file, "5 5\n#####\n#S#E#\n# # #\n#   #\n#####\n#####\n");
+            assertThrows("Extra rows should be rejected", MazeSizeMissmatchException.class,
+                    () -> new FileLoader().loadMapped(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Ensures that mazes wider and taller than 999 cells can be loaded and solved.
+     */
+    @Test
+    public void largeMaze() throws Exception {
+        Path file = Files.createTempFile("maze", ".txt");
+        try {
+            writeOpenMaze(file, 1201, 1001);
+            Maze maze = new FileLoader().loadMaze(file);
+            assertEquals("The maze should have 1201 rows", 1201, maze.getNumRows());
+            maze.autoSolve(MazeSolver.named("bfs"));
+            assertTrue("The end of the maze should be reached", maze.endFound());
+            assertEquals("Loading a mapped file should give the same maze",
+                    maze.getContentHash(), new FileLoader().loadMapped(file).getContentHash());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Ensures that a maze of over a billion cells can be loaded, solved and walked within a
+     * fixed heap budget. This test writes a 1 GB file, so it only runs when the
+     * {@code maze.hugeTests} system property is set (with {@code -Xmx1536m} to enforce the
+     * budget).
+     */
+    @Test
+    public void hugeMaze() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("maze.hugeTests"));
+        int size = 31623;
+        Path file = Files.createTempFile("maze", ".txt");
+        try {
+            writeOpenMaze(file, size, size);
+            Maze maze = new FileLoader().loadMaze(file);
+            assertTrue("The maze should have at least a billion cells",
+                    maze.getNumCells() >= 1_000_000_000L);
+            maze.autoSolve(MazeSolver.named("bfs"));
+            assertTrue("The end of the maze should be reached", maze.endFound());
+        } finally {
+            Files.delete(file);
+        }
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        assertTrue("Peak heap usage should stay within the budget (was %s MB)"
+                .formatted(peakHeap >> 20), peakHeap <= HUGE_MAZE_HEAP_BUDGET);
+    }
+
+    /**
+     * Writes a maze file with walls around the edge and at every cell where both the row and
+     * column are even, with the start and end in opposite corners.
+     * @param file The file to write.
+     * @param height The number of rows (must be odd).
+     * @param width The number of columns (must be odd).
+     */
+    private static void writeOpenMaze(Path file, int height, int width) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("%s %s".formatted(height, width));
+            writer.newLine();
+            char[] line = new char[width];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    boolean edge = row == 0 || row == height - 1 || col == 0 || col == width - 1;
+                    line[col] = edge || (row % 2 == 0 && col % 2 == 0) ? '#' : ' ';
+                }
+                if (row == 1) {
+                    line[1] = 'S';
+                } else if (row == height - 2) {
+                    line[width - 2] = 'E';
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,108 @@
+package maze;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class MazeGeneratorTest {
+
+    /** The directory of the golden files, which hold the mazes generated from fixed seeds. */
+    private static final Path GOLDEN_DIR = Path.of("test", "maze", "golden");
+    /** The sizes and seeds of the golden files. */
+    private static final long[][] GOLDEN_MAZES = {{11, 1}, {31, 42}, {101, 20240601}};
+
+    /**
+     * Gets a maze in the text maze file format, with {@code \n} line breaks.
+     * @param maze The maze to convert.
+     * @return The text of the maze file.
+     */
+    private static String toText(Maze maze) {
+        StringBuilder text = new StringBuilder();
+        text.append(maze.getNumRows()).append(' ').append(maze.getNumCols()).append('\n');
+        for (long cell = 0; cell < maze.getNumCells(); cell++) {
+            text.append(maze.getCell(cell).toFileChar());
+            if ((cell + 1) % maze.getNumCols() == 0) {
+                text.append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Ensures that mazes generated from fixed seeds never change, so that mazes shared in bug
+     * reports and benchmark corpora can always be generated again. After a deliberate change to
+     * generation, run with {@code -Dmaze.updateGolden=true} to rewrite the golden files.
+     */
+    @Test
+    public void goldenMazes() throws Exception {
+        boolean update = Boolean.getBoolean("maze.updateGolden");
+        for (long[] golden : GOLDEN_MAZES) {
+            int size = (int) golden[0];
+            long seed = golden[1];
+            Path file = GOLDEN_DIR.resolve("size%s_seed%s.txt".formatted(size, seed));
+            String generated = toText(Maze.generate(size, seed));
+            if (update) {
+                Files.createDirectories(GOLDEN_DIR);
+                Files.writeString(file, generated);
+            }
+            assertEquals("Size %s with seed %s should match %s".formatted(size, seed, file),
+                    Files.readString(file).replace("\r\n", "\n"), generated);
+        }
+    }
+
+    /**
+     * Ensures that the same seed always gives the same maze, and that different seeds give
+     * different mazes.
+     */
+    @Test
+    public void seededMazes() {
+        long hash = Maze.generate(201, 7).getContentHash();
+        assertEquals("The same seed should give the same maze", hash,
+                Maze.generate(201, 7).getContentHash());
+        assertNotEquals("Different seeds should give different mazes", hash,
+                Maze.generate(201, 8).getContentHash());
+        assertEquals("The size should be the same for any seed", 201,
+                Maze.generate(201, -1).getNumRows());
+    }
+
+    /**
+     * Builds the whole maze from a row-by-row generator.
+     * @param generator The generator to build the maze from.
+     * @return The generated maze.
+     */
+    static Maze build(EllerGenerator generator) {
+        MazeBuilder builder = new MazeBuilder(generator.getNumRows(), generator.getNumCols());
+        for (int row = 0; generator.hasNextRow(); row++) {
+            Cell[] cells = generator.nextRow();
+            for (int col = 0; col < cells.length; col++) {
+                builder.setCell(row, col, cells[col]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Ensures that rectangular mazes generated a row at a time have walls on every edge, their
+     * end points in the corners, and exactly one route between any two open cells.
+     */
+    @Test
+    public void rowByRowMazes() throws Exception {
+        int numRows = 41;
+        int numCols = 301;
+        Maze maze = build(new EllerGenerator(numRows, numCols, 5));
+        assertEquals("The maze should have the given height", numRows, maze.getNumRows());
+        assertEquals("The maze should have the given width", numCols, maze.getNumCols());
+        MazeTest.assertPerfect(maze);
+        maze.autoSolve();
+        assertTrue("The maze should be solveable", maze.endFound());
+
+        assertEquals("The same seed should give the same maze", maze.getContentHash(),
+                build(new EllerGenerator(numRows, numCols, 5)).getContentHash());
+        assertThrows("Even dimensions should be rejected", IllegalArgumentException.class,
+                () -> new EllerGenerator(numRows, 300));
+    }
+
+}
@@ -0,0 +1,230 @@
+package maze;
+
+import exceptions.MazeMalformedException;
+import exceptions.MazeSizeMissmatchException;
+import exceptions.MazeUnsolveableException;
+import io.FileLoader;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class MazeSolverTest {
+
+    /** The names of every solver. */
+    private static final String[] SOLVERS = {
+            "bfs", "astar", "bidirectional", "parallel", "junction"
+    };
+    /** Solveable maze files. */
+    private static final String[] SOLVEABLE = {
+            "txt/maze001.txt", "txt/maze002.txt", "txt/maze003.txt",
+            "txt/abnormal_end_points.txt"
+    };
+
+    private static Maze load(String filename) throws FileNotFoundException,
+            MazeSizeMissmatchException, MazeMalformedException {
+        return new Maze(new FileLoader().load(filename));
+    }
+
+    /**
+     * Ensures every solver finds a route that reaches the end without passing through walls,
+     * and that every solver finds a route of the same (shortest) length.
+     */
+    @Test
+    public void solversAgreeOnShortestLength() throws Exception {
+        for (String filename : SOLVEABLE) {
+            long expectedLength = -1;
+            for (String name : SOLVERS) {
+                Maze maze = load(filename);
+                SolvedPath route = MazeSolver.named(name).solve(maze);
+                assertEquals("%s should start at the start of %s".formatted(name, filename),
+                        maze.getStartIndex(), route.getStartIndex());
+                Position pos = maze.positionOf(route.getStartIndex());
+                for (long i = 0; i < route.length(); i++) {
+                    pos = pos.movedIn(route.getStep(i));
+                    assertTrue("%s should stay inside %s".formatted(name, filename),
+                            pos.getRow() >= 0 && pos.getRow() < maze.getNumRows()
+                                    && pos.getCol() >= 0 && pos.getCol() < maze.getNumCols());
+                    assertFalse("%s shouldn't pass through walls in %s (step %s)"
+                            .formatted(name, filename, i), maze.isWall(maze.indexOf(pos)));
+                }
+                assertEquals("%s should reach the end of %s".formatted(name, filename),
+                        maze.getEndIndex(), maze.indexOf(pos));
+                if (expectedLength == -1) {
+                    expectedLength = route.length();
+                }
+                assertEquals("%s should find a shortest route through %s"
+                        .formatted(name, filename), expectedLength, route.length());
+            }
+        }
+    }
+
+    /**
+     * Ensures the route lengths found match the known shortest route lengths.
+     */
+    @Test
+    public void knownShortestLengths() throws Exception {
+        assertEquals("Shortest route through maze001.txt should have 12 steps", 12,
+                new BreadthFirstSolver().solve(load("txt/maze001.txt")).length());
+        assertEquals("Shortest route through abnormal_end_points.txt should have 8 steps", 8,
+                new BreadthFirstSolver().solve(load("txt/abnormal_end_points.txt")).length());
+    }
+
+    /**
+     * Ensures every solver recognises an unsolveable maze.
+     */
+    @Test
+    public void solversRecogniseUnsolveable() throws Exception {
+        for (String name : SOLVERS) {
+            Maze maze = load("txt/unsolveable.txt");
+            assertThrows("%s should recognise an unsolveable maze".formatted(name),
+                    MazeUnsolveableException.class, () -> MazeSolver.named(name).solve(maze));
+        }
+    }
+
+    /**
+     * Ensures that running a search a few steps at a time gives the same route as running it
+     * all at once, and never expands more cells per call than the budget allows.
+     */
+    @Test
+    public void stepwiseSearch() throws Exception {
+        for (String name : SOLVERS) {
+            Maze maze = load("txt/maze003.txt");
+            MazeSearch search = MazeSolver.named(name).start(maze);
+            int[] reached = {0};
+            long expanded = 0;
+            while (!search.advance(3, cell -> reached[0]++)) {
+                assertTrue("%s should expand at most 3 cells per call".formatted(name),
+                        search.getExpanded() - expanded <= 3);
+                expanded = search.getExpanded();
+            }
+            assertTrue("%s should report reached cells".formatted(name), reached[0] > 0);
+            assertEquals("%s should find the same route step by step".formatted(name),
+                    MazeSolver.named(name).solve(maze).length(), search.getResult().length());
+            maze.follow(search.getResult());
+            assertTrue("Following the route should reach the end", maze.endFound());
+        }
+    }
+
+    /**
+     * Ensures a cancelled search stops and has no result.
+     */
+    @Test
+    public void cancelledSearch() throws Exception {
+        MazeSearch search = new BreadthFirstSolver().start(load("txt/maze003.txt"));
+        search.advance(10, null);
+        search.cancel();
+        assertTrue("A cancelled search should be finished", search.advance(10, null));
+        assertEquals("A cancelled search shouldn't expand any more cells", 10,
+                search.getExpanded());
+        assertThrows("A cancelled search shouldn't have a result", IllegalStateException.class,
+                search::getResult);
+    }
+
+    /**
+     * Ensures the junction graph of a maze made of long corridors is much smaller than the
+     * maze itself.
+     */
+    @Test
+    public void junctionGraphIsCompact() throws Exception {
+        Maze maze = load("txt/maze003.txt");
+        int openCells = 0;
+        for (long cell = 0; cell < maze.getNumCells(); cell++) {
+            if (!maze.isWall(cell)) {
+                openCells++;
+            }
+        }
+        JunctionGraph graph = maze.getJunctionGraph();
+        assertTrue("The graph should have far fewer nodes than the maze has open cells",
+                graph.getNumNodes() * 3 < openCells);
+        assertEquals("The start should be a node", maze.getStartIndex(),
+                graph.cellOf(graph.nodeOf(maze.getStartIndex())));
+    }
+
+    /**
+     * Ensures run-length encoding a route and decoding it again gives the same route, and that
+     * malformed counts are rejected.
+     */
+    @Test
+    public void runLengthRoundTrip() throws Exception {
+        Maze maze = load("txt/maze001.txt");
+        SolvedPath route = new BreadthFirstSolver().solve(maze);
+        assertEquals("maze001.txt's route should be encoded as runs", "4D2R2U2R2D",
+                route.toRunLength());
+        SolvedPath decoded = SolvedPath.fromRunLength(route.getStartIndex(), route.toRunLength());
+        assertEquals("Decoding should give the same number of steps", route.length(),
+                decoded.length());
+        for (int i = 0; i < route.length(); i++) {
+            assertEquals("Decoding should give the same steps", route.getStep(i),
+                    decoded.getStep(i));
+        }
+
+        assertThrows("Non-ASCII digits should be rejected", IllegalArgumentException.class,
+                () -> SolvedPath.fromRunLength(0, "\u0664D"));
+        assertThrows("Run lengths past the largest long should be rejected",
+                IllegalArgumentException.class,
+                () -> SolvedPath.fromRunLength(0, "99999999999999999999D"));
+        assertThrows("Routes longer than the largest long should be rejected",
+                IllegalArgumentException.class,
+                () -> SolvedPath.fromRunLength(0, Long.MAX_VALUE + "D1R"));
+    }
+
+    /**
+     * Ensures a cached solution is replayed without searching, and that the cache evicts the
+     * least recently used solution once full.
+     */
+    @Test
+    public void cachedSolutionsAreReplayed() throws Exception {
+        SolutionCache cache = new SolutionCache(1);
+        Maze maze = load("txt/maze002.txt");
+        MazeSolver solver = new CachingSolver(new BreadthFirstSolver(), cache, null);
+        long length = solver.solve(maze).length();
+        assertEquals("The solution should be cached", 1, cache.size());
+
+        MazeSearch replay = solver.start(load("txt/maze002.txt"));
+        assertTrue("A cached search should already be finished", replay.isFinished());
+        assertEquals("A cached search shouldn't expand any cells", 0, replay.getExpanded());
+        assertEquals("The cached route should be the same length", length,
+                replay.getResult().length());
+
+        solver.solve(load("txt/maze001.txt"));
+        assertNull("The least recently used solution should be evicted",
+                cache.get(maze.getContentHash()));
+    }
+
+    /**
+     * Ensures solutions saved to a file are used by a new cache, and ignored for other mazes.
+     */
+    @Test
+    public void solutionsPersistToDisk() throws Exception {
+        Path file = Files.createTempFile("maze", ".solution");
+        try {
+            Files.delete(file);
+            new CachingSolver(new BreadthFirstSolver(), new SolutionCache(4), file)
+                    .solve(load("txt/maze003.txt"));
+            assertTrue("The solution should be saved", Files.exists(file));
+            MazeSearch replay = new CachingSolver(new BreadthFirstSolver(), new SolutionCache(4),
+                    file).start(load("txt/maze003.txt"));
+            assertTrue("The saved solution should be replayed", replay.isFinished());
+            MazeSearch other = new CachingSolver(new BreadthFirstSolver(), new SolutionCache(4),
+                    file).start(load("txt/maze002.txt"));
+            assertFalse("A saved solution shouldn't be used for another maze",
+                    other.isFinished());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Ensures an unknown solver name is rejected.
+     */
+    @Test
+    public void unknownSolver() {
+        assertThrows("Unknown solver names should be rejected", IllegalArgumentException.class,
+                () -> MazeSolver.named("teleport"));
+    }
+
+}
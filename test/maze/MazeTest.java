@@ -6,6 +6,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.Assert.*;
 
 public class MazeTest {
@@ -55,6 +58,57 @@ public class MazeTest {
         assertTrue("Maze should be solveable", solved);
     }
 
+    /**
+     * Asserts that a generated maze is perfect: it starts at the top left and ends at the
+     * bottom right, has walls on every edge, and has exactly one route between any two open
+     * cells. Every node (odd row and column) must be open and every cell between four nodes
+     * must be a wall, so the open cells are the nodes and the walls opened between them.
+     * Opening one fewer wall than there are nodes, with every open cell reachable from the
+     * start, means the nodes are joined into a single tree.
+     * @param maze The maze to check.
+     */
+    static void assertPerfect(Maze maze) {
+        int numRows = maze.getNumRows();
+        int numCols = maze.getNumCols();
+        assertTrue("The maze should start at the top left", maze.isStartPos(new Position(1, 1)));
+        assertEquals("The maze should end at the bottom right", Cell.END,
+                maze.getCell(new Position(numRows - 2, numCols - 2)));
+        long numOpen = 0;
+        for (long cell = 0; cell < maze.getNumCells(); cell++) {
+            Position pos = maze.positionOf(cell);
+            boolean edge = pos.getRow() == 0 || pos.getCol() == 0 || pos.getRow() == numRows - 1
+                    || pos.getCol() == numCols - 1;
+            assertTrue("Edges should be walls", !edge || maze.isWall(cell));
+            if (pos.getRow() % 2 == 1 && pos.getCol() % 2 == 1) {
+                assertFalse("Nodes should be open", maze.isWall(cell));
+            } else if (pos.getRow() % 2 == 0 && pos.getCol() % 2 == 0) {
+                assertTrue("Cells between nodes should be walls", maze.isWall(cell));
+            }
+            numOpen += maze.isWall(cell) ? 0 : 1;
+        }
+
+        // Joining every node into a tree opens one fewer wall than there are nodes
+        long numNodes = (long) (numRows - 1) / 2 * ((numCols - 1) / 2);
+        assertEquals("Nodes should be joined into a tree", 2 * numNodes - 1, numOpen);
+
+        // Walks every open cell reachable from the start
+        boolean[] reached = new boolean[(int) maze.getNumCells()];
+        long[] queue = new long[(int) numOpen];
+        queue[0] = maze.getStartIndex();
+        reached[(int) maze.getStartIndex()] = true;
+        int numReached = 1;
+        for (int i = 0; i < numReached; i++) {
+            for (Direction dir : Direction.ALL_DIRECTIONS) {
+                long next = queue[i] + dir.indexOffset(numCols);
+                if (!maze.isWall(next) && !reached[(int) next]) {
+                    reached[(int) next] = true;
+                    queue[numReached++] = next;
+                }
+            }
+        }
+        assertEquals("Every open cell should be reachable from the start", numOpen, numReached);
+    }
+
     /**
      * Ensures maze end points are initialised properly (they are at the right locations).
      */
@@ -78,6 +132,19 @@ public class MazeTest {
         ensureSolveable(Maze.generate(11));  // 11 is just an arbitrary size
     }
 
+    /**
+     * Ensures a large generated maze has its end points in the corners, walls on every edge,
+     * and exactly one route between any two open cells.
+     */
+    @Test
+    public void generatedMazeIsPerfect() {
+        Maze maze = Maze.generate(501);
+        assertPerfect(maze);
+        ensureSolveable(maze);
+        assertThrows("Even sizes should be rejected", IllegalArgumentException.class,
+                () -> Maze.generate(10));
+    }
+
     /**
      * Ensures that solveable mazes can be solved.
      */
@@ -163,6 +230,123 @@ public class MazeTest {
                 maze1.wasBacktracked(pos));
     }
 
+    /**
+     * Ensures that returning to an earlier position backtracks every position visited since,
+     * and that revisiting a backtracked position makes it visited again.
+     */
+    @Test
+    public void backtrackedRoute() throws WallInTheWayException {
+        Direction[] route = {Direction.DOWN, Direction.DOWN, Direction.DOWN, Direction.DOWN};
+        for (Direction dir : route) {
+            maze1.moveIn(dir);
+        }
+        maze1.moveIn(Direction.UP);
+        maze1.moveIn(Direction.UP);
+        assertTrue("Positions left behind should be backtracked",
+                maze1.wasBacktracked(new Position(5, 1)));
+        assertTrue("Positions left behind should be backtracked",
+                maze1.wasBacktracked(new Position(4, 1)));
+        assertTrue("The current position should still be visited",
+                maze1.wasVisited(new Position(3, 1)));
+        maze1.moveIn(Direction.DOWN);
+        assertTrue("Revisited positions should no longer be backtracked",
+                maze1.wasVisited(new Position(4, 1)) && !maze1.wasBacktracked(new Position(4, 1)));
+    }
+
+    /**
+     * Ensures that each move records only the cells it changed, including every cell it
+     * backtracks, and that autosolving means every cell may have changed.
+     */
+    @Test
+    public void changedCells() throws Exception {
+        Set<Long> changed = new HashSet<>();
+        assertFalse("Every cell may have changed in a new maze",
+                maze2.drainChangedCells(changed::add));
+        assertTrue("Nothing should be recorded before a full update", changed.isEmpty());
+        assertTrue("No cells should have changed yet", maze2.drainChangedCells(changed::add));
+        assertTrue("No cells should have changed yet", changed.isEmpty());
+
+        // Goes around a loop and back to the start, backtracking the loop
+        Direction[] loop = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP};
+        for (Direction dir : loop) {
+            maze2.moveIn(dir);
+        }
+        assertTrue("Moves should be recorded", maze2.drainChangedCells(changed::add));
+        Set<Long> expected = new HashSet<>();
+        for (Position pos : new Position[]{new Position(2, 2), new Position(2, 3),
+                new Position(3, 3), new Position(3, 2)}) {
+            expected.add(maze2.indexOf(pos));
+        }
+        assertEquals("Only the cells on the loop should have changed", expected, changed);
+
+        changed.clear();
+        maze2.moveIn(Direction.DOWN);
+        assertTrue("Moves should be recorded", maze2.drainChangedCells(changed::add));
+        assertEquals("A move should change the cells it leaves and enters",
+                Set.of(maze2.indexOf(new Position(2, 2)), maze2.indexOf(new Position(3, 2))),
+                changed);
+
+        changed.clear();
+        maze2.autoSolve();
+        assertFalse("Every cell may have changed after autosolving",
+                maze2.drainChangedCells(changed::add));
+        assertTrue("Autosolving shouldn't record each move", changed.isEmpty());
+    }
+
+    /**
+     * Ensures that looking cells up by index agrees with looking them up by position.
+     */
+    @Test
+    public void indexAccessors() {
+        maze2.forEachPos(pos -> {
+            long index = maze2.indexOf(pos);
+            assertEquals("Index and position lookups should agree", maze2.getCell(pos),
+                    maze2.getCell(index));
+            assertEquals("Indices should convert back to the same position", pos,
+                    maze2.positionOf(index));
+            assertEquals("isWall should match the cell type",
+                    maze2.getCell(pos) == Cell.WALL, maze2.isWall(index));
+        });
+    }
+
+    /**
+     * Ensures hints point along a shortest route and report the remaining distance, and that
+     * following them reaches the end.
+     */
+    @Test
+    public void hintsLeadToEnd() throws WallInTheWayException {
+        assertEquals("Maze 1's start should be 12 steps from the end", 12,
+                maze1.getDistanceToEnd());
+        assertEquals("The first hint in maze 1 should be down", Direction.DOWN,
+                maze1.getHint());
+        maze1.moveIn(Direction.DOWN);
+        assertEquals("Moving towards the end should reduce the distance", 11,
+                maze1.getDistanceToEnd());
+        while (!maze1.endFound()) {
+            maze1.moveIn(maze1.getHint());
+        }
+        assertNull("There should be no hint once the end is reached", maze1.getHint());
+    }
+
+    /**
+     * Ensures that positions behave as values (equal positions hash and pack identically).
+     */
+    @Test
+    public void positionsAreValues() {
+        Position pos = new Position(1234, 5678);
+        Position same = new Position(1234, 5678);
+        assertEquals("Equal positions should have equal hash codes", pos.hashCode(),
+                same.hashCode());
+        assertEquals("Packing and unpacking should give the same position", pos,
+                Position.unpack(pos.pack()));
+        assertEquals("Moving should give the adjacent position", new Position(1233, 5678),
+                pos.movedIn(Direction.UP));
+        for (Direction dir : Direction.ALL_DIRECTIONS) {
+            assertEquals("Index offsets should match moving in a direction",
+                    pos.movedIn(dir).index(7000), pos.index(7000) + dir.indexOffset(7000));
+        }
+    }
+
     /**
      * Ensures the maze's dimensions match the maze data given.
      */
@@ -0,0 +1,83 @@
+package maze;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the parallel breadth-first solver scales with the number of worker threads,
+ * compared with the sequential breadth-first solver.
+ * <p>
+ * Run with {@code java maze.ParallelSolverBenchmark [size] [repeats] [threads]}. The maze is a
+ * square of the given size with a quarter of its inner cells randomly walled off, which gives
+ * the wide frontiers that parallel expansion benefits from. The number of threads is doubled
+ * from 1 up to the given maximum, which defaults to the number of processors.
+ */
+public class ParallelSolverBenchmark {
+
+    /** The fraction of inner cells that are walls. */
+    private static final double WALL_DENSITY = 0.25;
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4001;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        Maze maze = new Maze(randomMaze(size, new SplittableRandom(2002)));
+
+        double sequential = time(new BreadthFirstSolver(), maze, repeats);
+        System.out.printf("Maze: %d x %d, %d repeats%n", size, size, repeats);
+        System.out.printf("%-12s %10s %8s%n", "solver", "ms", "speedup");
+        System.out.printf("%-12s %10.1f %8.2f%n", "sequential", sequential, 1.0);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double parallel = time(new ParallelBreadthFirstSolver(pool), maze, repeats);
+            pool.shutdown();
+            System.out.printf("%-12s %10.1f %8.2f%n", "parallel x" + threads, parallel,
+                    sequential / parallel);
+        }
+    }
+
+    /**
+     * Gets the best time taken by a solver to solve a maze.
+     * @param solver The solver to time.
+     * @param maze The maze to solve.
+     * @param repeats The number of times to solve the maze.
+     * @return The fastest time taken, in milliseconds.
+     */
+    private static double time(MazeSolver solver, Maze maze, int repeats) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            solver.solve(maze);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    /**
+     * Creates a randomly walled (but always solveable) maze with the start and end at opposite
+     * corners.
+     * @param size The width/height of the maze.
+     * @param random The random number generator to use.
+     * @return The maze data.
+     */
+    static char[][] randomMaze(int size, SplittableRandom random) {
+        char[][] data = new char[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                boolean edge = row == 0 || col == 0 || row == size - 1 || col == size - 1;
+                data[row][col] = edge || random.nextDouble() < WALL_DENSITY ? '#' : ' ';
+            }
+        }
+
+        // Clears a corridor along the top and right so the maze is always solveable
+        for (int i = 1; i < size - 1; i++) {
+            data[1][i] = ' ';
+            data[i][size - 2] = ' ';
+        }
+        data[1][1] = 'S';
+        data[size - 2][size - 2] = 'E';
+        return data;
+    }
+
+}
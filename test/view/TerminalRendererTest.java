@@ -0,0 +1,127 @@
+package view;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class TerminalRendererTest {
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+
+    /**
+     * Gets everything written since this was last called.
+     * @return The text written.
+     */
+    private String written() {
+        String text = output.toString(StandardCharsets.UTF_8);
+        output.reset();
+        return text;
+    }
+
+    /**
+     * Sets every cell of a renderer's window.
+     * @param renderer The renderer.
+     * @param appearance How every cell should appear.
+     */
+    private static void fill(TerminalRenderer renderer, String appearance) {
+        for (int row = 0; row < renderer.getWindowRows(); row++) {
+            for (int col = 0; col < renderer.getWindowCols(); col++) {
+                renderer.set(renderer.getFirstRow() + row, renderer.getFirstCol() + col,
+                        appearance);
+            }
+        }
+    }
+
+    /**
+     * Ensures that the first frame clears the screen and draws every cell, and later frames
+     * only redraw the cells that changed.
+     */
+    @Test
+    public void onlyChangedCellsRedrawn() {
+        TerminalRenderer renderer = new TerminalRenderer(out, true, 3, 3, 24, 80);
+        fill(renderer, "a");
+        renderer.flush();
+        String first = written();
+        assertTrue("The first frame should clear the screen", first.startsWith(Ansi.CLEAR_SCREEN));
+        assertEquals("The first frame should draw every cell", 9, first.chars()
+                .filter(c -> c == 'a').count());
+
+        renderer.set(1, 2, "b");
+        renderer.set(0, 0, "a");
+        renderer.flush();
+        String next = written();
+        assertFalse("Unchanged cells shouldn't be redrawn", next.contains("a"));
+        assertTrue("The changed cell should be drawn where it is on the screen",
+                next.startsWith(Ansi.moveCursor(new StringBuilder(), 1, 4) + "b"));
+
+        renderer.flush();
+        assertEquals("Nothing should be written when nothing changed", "", written());
+    }
+
+    /**
+     * Ensures that mazes too large for the terminal are drawn through a window that moves to the
+     * player when they get near its edge.
+     */
+    @Test
+    public void windowFollowsPlayer() {
+        TerminalRenderer renderer = new TerminalRenderer(out, true, 41, 101, 25, 40);
+        assertEquals("The window should leave room for messages",
+                25 - TerminalRenderer.MESSAGE_LINES, renderer.getWindowRows());
+        assertEquals("Each cell should take up two columns", 20, renderer.getWindowCols());
+        assertFalse("The window shouldn't move while the player is well inside it",
+                renderer.follow(10, 10));
+        assertTrue("The window should move when the player nears its edge",
+                renderer.follow(10, 18));
+        assertEquals("The window should be centred on the player", 8, renderer.getFirstCol());
+        assertTrue("The window should stay inside the maze", renderer.follow(40, 100));
+        assertEquals("The window should stop at the bottom of the maze", 21,
+                renderer.getFirstRow());
+        assertEquals("The window should stop at the right of the maze", 81,
+                renderer.getFirstCol());
+
+        renderer.set(0, 0, "x");
+        renderer.set(30, 90, "y");
+        renderer.flush();
+        String frame = written();
+        assertFalse("Cells outside the window shouldn't be drawn", frame.contains("x"));
+        StringBuilder expected = Ansi.moveCursor(new StringBuilder(Ansi.CLEAR_SCREEN), 30 - 21,
+                (90 - 81) * TerminalRenderer.CELL_WIDTH).append("y");
+        Ansi.moveCursor(expected, renderer.getWindowRows(), 0).append(Ansi.CLEAR_BELOW);
+        assertEquals("Only the cell inside the window should be drawn", expected.toString(),
+                frame);
+    }
+
+    /**
+     * Ensures that the ANSI control sequences in a message aren't counted towards its length.
+     */
+    @Test
+    public void visibleLength() {
+        assertEquals("Plain text should be counted in full", 5, Ansi.visibleLength("hello"));
+        assertEquals("Colours shouldn't be counted", 5,
+                Ansi.visibleLength(Ansi.colour("hello", Ansi.RED)));
+        assertEquals("Cursor movements shouldn't be counted", 1,
+                Ansi.visibleLength(Ansi.moveCursor(new StringBuilder(), 10, 20) + "x"));
+    }
+
+    /**
+     * Ensures that without ANSI escape codes every frame is the whole maze, printed in full.
+     */
+    @Test
+    public void plainFrames() {
+        TerminalRenderer renderer = new TerminalRenderer(out, false, 2, 3, 1, 1);
+        fill(renderer, "a");
+        renderer.flush();
+        String lines = "aaa" + System.lineSeparator() + "aaa" + System.lineSeparator();
+        assertEquals("The whole maze should be printed", lines, written());
+        renderer.set(0, 0, "b");
+        renderer.flush();
+        assertEquals("The whole maze should be printed again", "b" + lines.substring(1),
+                written());
+    }
+
+}
@@ -0,0 +1,73 @@
+package view;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class TileCacheTest {
+
+    private static final int BACKGROUND = 0x404040;
+    private static final int WHITE = 0xFFFFFF;
+
+    /** The colour of each cell of a one row maze, read by the caches under test. */
+    private final int[] colours = new int[3 * TileCache.TILE_PIXELS];
+
+    /**
+     * Creates a tile cache over a one row maze.
+     * @param capacity The most tiles to keep.
+     * @return The tile cache.
+     */
+    private TileCache cache(int capacity) {
+        return new TileCache(capacity, (row, col) -> colours[col], 1, colours.length, -2, 0,
+                BACKGROUND);
+    }
+
+    /**
+     * Ensures that tiles are drawn from the colour of each cell, and that changed cells are
+     * drawn into cached tiles at every zoom level.
+     */
+    @Test
+    public void tilesDrawn() {
+        TileCache tiles = cache(8);
+        BufferedImage tile = tiles.get(0, 0, 0);
+        assertEquals("Cells should be drawn in their colour", 0, tile.getRGB(5, 0) & WHITE);
+        assertEquals("Past the edge of the maze should be the background", BACKGROUND,
+                tile.getRGB(5, 1) & WHITE);
+
+        // Each pixel at zoom -2 is the average of 4 cells
+        colours[5] = WHITE;
+        BufferedImage zoomedOut = tiles.get(-2, 0, 0);
+        assertEquals("Zoomed out pixels should average the cells they cover", 0x3F3F3F,
+                zoomedOut.getRGB(1, 0) & WHITE);
+        assertEquals("Cells past the last pixel shouldn't be drawn", BACKGROUND,
+                zoomedOut.getRGB(colours.length / 4, 0) & WHITE);
+
+        tiles.cellChanged(0, 5);
+        assertEquals("Changed cells should be drawn", WHITE, tile.getRGB(5, 0) & WHITE);
+        colours[5] = 0;
+        colours[6] = WHITE;
+        tiles.cellChanged(0, 5);
+        tiles.cellChanged(0, 6);
+        assertEquals("Changed cells should be averaged again", 0x3F3F3F,
+                zoomedOut.getRGB(1, 0) & WHITE);
+    }
+
+    /**
+     * Ensures that drawing changed cells doesn't count as using their tiles, so tiles that are
+     * only changed are still dropped first.
+     */
+    @Test
+    public void changesDontKeepTilesCached() {
+        TileCache tiles = cache(2);
+        BufferedImage first = tiles.get(0, 0, 0);
+        BufferedImage second = tiles.get(0, 0, 1);
+        tiles.cellChanged(0, 0);
+        tiles.get(0, 0, 2);
+        assertSame("The second tile should still be cached", second, tiles.get(0, 0, 1));
+        assertFalse("The changed tile was least recently used, so it should be dropped",
+                first == tiles.get(0, 0, 0));
+    }
+
+}